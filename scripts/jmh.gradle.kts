@@ -0,0 +1,38 @@
+// JMH benchmarks for the shared sources in template/src/jmh/java.
+// Run with ./gradlew :<variant>:jmh (optionally -Pjmh.include=<regex>); results are written as JSON to
+// build/reports/jmh/<variant>.json so runs from different Stonecutter variants can be compared offline.
+
+val jmhVersion = "1.37"
+val sourceSets = the<SourceSetContainer>()
+val mainSourceSet = sourceSets.getByName("main")
+// Benchmarks share their fixtures with the tests (e.g. the full-height carver chunk).
+val testSourceSet = sourceSets.getByName("test")
+
+val jmhSourceSet = sourceSets.create("jmh") {
+    java.srcDir(rootProject.file("template/src/jmh/java"))
+    compileClasspath += mainSourceSet.output + testSourceSet.output + testSourceSet.compileClasspath
+    runtimeClasspath += mainSourceSet.output + testSourceSet.output + testSourceSet.runtimeClasspath
+}
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:$jmhVersion")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks and writes JSON results for cross-variant comparison."
+
+    val results = rootProject.layout.buildDirectory.file("reports/jmh/${project.name}.json")
+    dependsOn(tasks.named(jmhSourceSet.classesTaskName))
+    classpath = jmhSourceSet.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    outputs.file(results)
+    outputs.upToDateWhen { false }
+
+    doFirst {
+        results.get().asFile.parentFile.mkdirs()
+    }
+    args("-rf", "json", "-rff", results.get().asFile.absolutePath)
+    (project.findProperty("jmh.include") as String?)?.let { args(it) }
+}
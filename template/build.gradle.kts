@@ -20,12 +20,16 @@ version = "1.0.0"
 // --- NeoForge configuration ---
 minecraft {
     mappings("official", stonecutter["MC_VERSION"])
+    accessTransformer(file("src/main/resources/META-INF/accesstransformer.cfg"))
 }
 
 dependencies {
     implementation("net.neoforged:neoforge:${stonecutter["NEOFORGE_VERSION"]}")
 }
 
+// --- JMH benchmarks (template/src/jmh/java) ---
+apply(from = rootProject.file("scripts/jmh.gradle.kts"))
+
 // --- Enforce proper jar naming after Stonecutter version injection ---
 afterEvaluate {
     tasks.withType<Jar>().configureEach {
@@ -0,0 +1,99 @@
+package com.theexpanse.worldgen;
+
+import com.google.gson.JsonParser;
+import com.mojang.serialization.JsonOps;
+import net.minecraft.core.Holder;
+import net.minecraft.world.level.levelgen.feature.ConfiguredFeature;
+import net.minecraft.world.level.levelgen.feature.Feature;
+import net.minecraft.world.level.levelgen.feature.configurations.NoneFeatureConfiguration;
+import net.minecraft.world.level.levelgen.heightproviders.HeightProvider;
+import net.minecraft.world.level.levelgen.placement.CountPlacement;
+import net.minecraft.world.level.levelgen.placement.HeightRangePlacement;
+import net.minecraft.world.level.levelgen.placement.InSquarePlacement;
+import net.minecraft.world.level.levelgen.placement.PlacedFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling throughput over a synthetic placed-feature registry.
+ *
+ * <p>Each invocation rescales the whole registry, mirroring one datapack reload. {@code codec} is the
+ * JSON round-trip fallback, {@code typed} is the path {@link OreScaler} takes for vanilla providers. Providers
+ * come from {@link OreScalerRewriteTest#PROVIDER_TEMPLATES}, the mix the test checks the two paths against.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class OreScalerBenchmark {
+    @Param({"100", "500", "1000"})
+    public int featureCount;
+
+    @Param({"60"})
+    public int sharedProviders;
+
+    private List<PlacedFeature> features;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MinecraftBootstrap.bootstrap();
+
+        Random random = new Random(0x5EEDL);
+        List<HeightProvider> providers = new ArrayList<>(sharedProviders);
+        for (int i = 0; i < sharedProviders; i++) {
+            int low = random.nextInt(64);
+            int high = low + 16 + random.nextInt(160);
+            String[] templates = OreScalerRewriteTest.PROVIDER_TEMPLATES;
+            String json = String.format(templates[i % templates.length], low, high);
+            providers.add(HeightProvider.CODEC.parse(JsonOps.INSTANCE, JsonParser.parseString(json)).getOrThrow());
+        }
+
+        Holder<ConfiguredFeature<?, ?>> feature =
+            Holder.direct(new ConfiguredFeature<>(Feature.NO_OP, NoneFeatureConfiguration.INSTANCE));
+        features = new ArrayList<>(featureCount);
+        for (int i = 0; i < featureCount; i++) {
+            HeightProvider provider = providers.get(random.nextInt(providers.size()));
+            features.add(new PlacedFeature(feature, List.of(
+                CountPlacement.of(1 + random.nextInt(20)),
+                InSquarePlacement.spread(),
+                HeightRangePlacement.of(provider))));
+        }
+    }
+
+    @Benchmark
+    public void codec(Blackhole blackhole) {
+        for (PlacedFeature feature : features) {
+            for (var modifier : feature.placement()) {
+                if (modifier instanceof HeightRangePlacement range) {
+                    blackhole.consume(OreScaler.scaleHeightRangeWithCodec(range));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void typed(Blackhole blackhole) {
+        HeightProviderScaler heightScaler = OreScaler.newHeightScaler();
+        for (PlacedFeature feature : features) {
+            blackhole.consume(OreScaler.scaleFeature(feature, heightScaler));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.theexpanse.worldgen.carver;
+
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.CarvingMask;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import net.minecraft.world.level.levelgen.LegacyRandomSource;
+import net.minecraft.world.level.levelgen.WorldgenRandom;
+import net.minecraft.world.level.levelgen.carver.CanyonCarverConfiguration;
+import net.minecraft.world.level.levelgen.carver.CanyonWorldCarver;
+import net.minecraft.world.level.levelgen.carver.ConfiguredWorldCarver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CanyonCarveEngine} against vanilla {@link CanyonWorldCarver} on the same configuration and seeds.
+ * Run with {@code -prof gc} to compare allocation rates as well as time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class CanyonCarveEngineBenchmark {
+    private static final ChunkPos TARGET = new ChunkPos(0, 0);
+    private static final int START_RADIUS = 4;
+
+    @Param({"massive_ravine", "mega_ocean_ravine"})
+    public String carver;
+
+    @Param({"vanilla", "expanse"})
+    public String engine;
+
+    private CarverTestFixture fixture;
+    private ConfiguredWorldCarver<CanyonCarverConfiguration> configured;
+    private WorldgenRandom random;
+    private ProtoChunk chunk;
+    private CarvingMask mask;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        fixture = new CarverTestFixture();
+        CanyonWorldCarver instance;
+        if (engine.equals("vanilla")) {
+            instance = new CanyonWorldCarver(CanyonCarverConfiguration.CODEC);
+        } else if (carver.equals("massive_ravine")) {
+            instance = new MassiveRavineCarver();
+        } else {
+            instance = new MegaOceanRavineCarver();
+        }
+        configured = fixture.configured(instance, carver);
+        random = new WorldgenRandom(new LegacyRandomSource(CarverTestFixture.SEED));
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        chunk = fixture.stoneChunk(TARGET);
+        mask = fixture.newMask();
+    }
+
+    @Benchmark
+    public CarvingMask carve() {
+        for (int dx = -START_RADIUS; dx <= START_RADIUS; dx++) {
+            for (int dz = -START_RADIUS; dz <= START_RADIUS; dz++) {
+                ChunkPos start = new ChunkPos(TARGET.x + dx, TARGET.z + dz);
+                random.setLargeFeatureSeed(CarverTestFixture.SEED, start.x, start.z);
+                configured.carve(fixture.context, chunk, fixture.biomeAccessor, random, fixture.aquifer, start, mask);
+            }
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,81 @@
+package com.theexpanse.worldgen.carver;
+
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.CarvingMask;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import net.minecraft.world.level.levelgen.LegacyRandomSource;
+import net.minecraft.world.level.levelgen.WorldgenRandom;
+import net.minecraft.world.level.levelgen.carver.CaveCarverConfiguration;
+import net.minecraft.world.level.levelgen.carver.ConfiguredWorldCarver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carves one full-height stone chunk with every start chunk in a {@code radius} around it, the way
+ * {@code ChunkGenerator#applyCarvers} does, but skipping the {@code isStartChunk} roll so every start carves.
+ *
+ * <p>The chunk is rebuilt before each invocation; that setup is not part of the measured time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class CarverBenchmark {
+    private static final ChunkPos TARGET = new ChunkPos(0, 0);
+
+    @Param({"massive_ravine", "mega_ocean_ravine", "blue_hole"})
+    public String carver;
+
+    @Param({"1", "4"})
+    public int radius;
+
+    private CarverTestFixture fixture;
+    private ConfiguredWorldCarver<?> configured;
+    private WorldgenRandom random;
+    private ProtoChunk chunk;
+    private CarvingMask mask;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        fixture = new CarverTestFixture();
+        configured = switch (carver) {
+            case "massive_ravine" -> fixture.configured(new MassiveRavineCarver(), carver);
+            case "mega_ocean_ravine" -> fixture.configured(new MegaOceanRavineCarver(), carver);
+            case "blue_hole" -> fixture.configured(new BlueHoleCarver(CaveCarverConfiguration.CODEC), carver);
+            default -> throw new IllegalArgumentException("Unknown carver " + carver);
+        };
+        random = new WorldgenRandom(new LegacyRandomSource(CarverTestFixture.SEED));
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        chunk = fixture.stoneChunk(TARGET);
+        mask = fixture.newMask();
+    }
+
+    @Benchmark
+    public CarvingMask carve() {
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int dz = -radius; dz <= radius; dz++) {
+                ChunkPos start = new ChunkPos(TARGET.x + dx, TARGET.z + dz);
+                random.setLargeFeatureSeed(CarverTestFixture.SEED, start.x, start.z);
+                configured.carve(fixture.context, chunk, fixture.biomeAccessor, random, fixture.aquifer, start, mask);
+            }
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,92 @@
+package com.theexpanse.worldgen.carver;
+
+import net.minecraft.world.level.chunk.CarvingMask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Set/get throughput of the carving mask at full 2288-block height.
+ *
+ * <p>{@code fill} is the fraction of the chunk volume that is touched, sampled as vertical runs the way a
+ * carver writes them; {@code 0.02} is typical of a ravine clipping a chunk, {@code 0.25} of a chunk a blue
+ * hole passes through.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CarvingMaskBenchmark {
+    private static final int RUN_LENGTH = 16;
+
+    @Param({"0.02", "0.25"})
+    public double fill;
+
+    private int[] positions;
+    private CarvingMask populated;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int volume = 16 * 16 * CarverTestFixture.HEIGHT;
+        int runs = Math.max(1, (int) (volume * fill) / RUN_LENGTH);
+        Random random = new Random(CarverTestFixture.SEED);
+        positions = new int[runs * RUN_LENGTH * 3];
+
+        int cursor = 0;
+        for (int run = 0; run < runs; run++) {
+            int x = random.nextInt(16);
+            int z = random.nextInt(16);
+            int top = CarverTestFixture.MIN_Y + RUN_LENGTH
+                + random.nextInt(CarverTestFixture.HEIGHT - RUN_LENGTH);
+            for (int i = 0; i < RUN_LENGTH; i++) {
+                positions[cursor++] = x;
+                positions[cursor++] = top - i;
+                positions[cursor++] = z;
+            }
+        }
+
+        populated = newMask();
+        set(populated);
+    }
+
+    @Benchmark
+    public CarvingMask set() {
+        CarvingMask mask = newMask();
+        set(mask);
+        return mask;
+    }
+
+    @Benchmark
+    public void get(Blackhole blackhole) {
+        int[] positions = this.positions;
+        for (int i = 0; i < positions.length; i += 3) {
+            blackhole.consume(populated.get(positions[i], positions[i + 1], positions[i + 2]));
+        }
+    }
+
+    private void set(CarvingMask mask) {
+        int[] positions = this.positions;
+        for (int i = 0; i < positions.length; i += 3) {
+            mask.set(positions[i], positions[i + 1], positions[i + 2]);
+        }
+    }
+
+    private static CarvingMask newMask() {
+        return new CarvingMask(CarverTestFixture.HEIGHT, CarverTestFixture.MIN_Y);
+    }
+}
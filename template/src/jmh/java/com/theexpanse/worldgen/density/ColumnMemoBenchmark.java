@@ -0,0 +1,165 @@
+package com.theexpanse.worldgen.density;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mojang.serialization.JsonOps;
+import com.theexpanse.worldgen.MinecraftBootstrap;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.data.registries.VanillaRegistries;
+import net.minecraft.resources.RegistryOps;
+import net.minecraft.world.level.levelgen.DensityFunction;
+import net.minecraft.world.level.levelgen.NoiseGeneratorSettings;
+import net.minecraft.world.level.levelgen.NoiseRouter;
+import net.minecraft.world.level.levelgen.RandomState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills one chunk's climate inputs at quart resolution, the way biome population samples the router, from the
+ * shipped overworld noise settings with and without their {@code the_expanse:column_memo} wrappers.
+ *
+ * <p>Our own function types are not in the frozen vanilla registry here, so the settings are parsed with them
+ * unwrapped (neither changes the values it wraps) and the memo is re-applied to
+ * the router entries the JSON wraps. Every invocation moves to a fresh chunk so no column is reused across
+ * calls.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class ColumnMemoBenchmark {
+    private static final String OVERWORLD = "/data/minecraft/worldgen/noise_settings/overworld.json";
+    private static final String COLUMN_MEMO = "the_expanse:column_memo";
+    private static final long SEED = 0x5EED_C0DEL;
+
+    @Param({"false", "true"})
+    public boolean memo;
+
+    private DensityFunction[] inputs;
+    private int minQuartY;
+    private int quartHeight;
+    private int chunkX;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        MinecraftBootstrap.bootstrap();
+
+        JsonObject json = readSettings();
+        JsonObject router = json.getAsJsonObject("noise_router");
+        List<String> memoised = new ArrayList<>();
+        for (Map.Entry<String, JsonElement> entry : router.entrySet()) {
+            if (isType(entry.getValue(), COLUMN_MEMO)) {
+                memoised.add(entry.getKey());
+            }
+        }
+        JsonElement vanilla = unwrapExpanseTypes(json);
+
+        HolderLookup.Provider registries = VanillaRegistries.createLookup();
+        NoiseGeneratorSettings settings = NoiseGeneratorSettings.DIRECT_CODEC
+            .parse(RegistryOps.create(JsonOps.INSTANCE, registries), vanilla)
+            .getOrThrow();
+        NoiseRouter wired = RandomState.create(settings, registries.lookupOrThrow(Registries.NOISE), SEED).router();
+
+        inputs = new DensityFunction[memoised.size()];
+        for (int i = 0; i < inputs.length; i++) {
+            DensityFunction input = routerEntry(wired, memoised.get(i));
+            inputs[i] = memo ? new ColumnMemoDensityFunction(input) : input;
+        }
+        minQuartY = settings.noiseSettings().minY() >> 2;
+        quartHeight = settings.noiseSettings().height() >> 2;
+    }
+
+    @Benchmark
+    public double fillChunk() {
+        int baseX = chunkX++ << 4;
+        double sum = 0.0D;
+        for (int quartX = 0; quartX < 4; quartX++) {
+            for (int quartZ = 0; quartZ < 4; quartZ++) {
+                for (int quartY = 0; quartY < quartHeight; quartY++) {
+                    DensityFunction.SinglePointContext point = new DensityFunction.SinglePointContext(
+                        baseX + (quartX << 2), (minQuartY + quartY) << 2, quartZ << 2);
+                    for (DensityFunction input : inputs) {
+                        sum += input.compute(point);
+                    }
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static DensityFunction routerEntry(NoiseRouter router, String name) {
+        return switch (name) {
+            case "continents" -> router.continents();
+            case "erosion" -> router.erosion();
+            case "ridges" -> router.ridges();
+            case "temperature" -> router.temperature();
+            case "vegetation" -> router.vegetation();
+            case "depth" -> router.depth();
+            default -> throw new IllegalArgumentException("Unexpected memoised router entry " + name);
+        };
+    }
+
+    private static JsonElement unwrapExpanseTypes(JsonElement element) {
+        if (element.isJsonObject()) {
+            JsonObject object = element.getAsJsonObject();
+            if (object.has("type") && object.has("argument")
+                && object.get("type").getAsString().startsWith("the_expanse:")) {
+                return unwrapExpanseTypes(object.get("argument"));
+            }
+            JsonObject copy = new JsonObject();
+            for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                copy.add(entry.getKey(), unwrapExpanseTypes(entry.getValue()));
+            }
+            return copy;
+        }
+        if (element.isJsonArray()) {
+            JsonArray copy = new JsonArray();
+            for (JsonElement child : element.getAsJsonArray()) {
+                copy.add(unwrapExpanseTypes(child));
+            }
+            return copy;
+        }
+        return element;
+    }
+
+    private static boolean isType(JsonElement element, String type) {
+        return element.isJsonObject() && element.getAsJsonObject().has("type")
+            && type.equals(element.getAsJsonObject().get("type").getAsString());
+    }
+
+    private static JsonObject readSettings() throws IOException {
+        try (InputStream stream = ColumnMemoBenchmark.class.getResourceAsStream(OVERWORLD)) {
+            if (stream == null) {
+                throw new IOException("Missing " + OVERWORLD);
+            }
+            try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+                return JsonParser.parseReader(reader).getAsJsonObject();
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.theexpanse;
+
+import net.neoforged.neoforge.common.ModConfigSpec;
+
+/**
+ * Common (non-synced) settings for The Expanse.
+ */
+public final class ExpanseConfig {
+    private static final ModConfigSpec.Builder BUILDER = new ModConfigSpec.Builder();
+
+    static {
+        BUILDER.push("worldgen");
+    }
+
+    public static final ModConfigSpec.IntValue CARVER_PLAN_CACHE_SIZE = BUILDER
+            .comment(
+                    "Number of ravine and blue hole plans kept so neighbouring chunks reuse them instead of",
+                    "recomputing the whole carver. Hit/miss counts are logged when the server stops;",
+                    "raise this for large pregeneration runs if the hit rate is low.")
+            .defineInRange("carverPlanCacheSize", 512, 16, 65536);
+
+    public static final ModConfigSpec.BooleanValue SETTLE_CARVED_FLUIDS = BUILDER
+            .comment(
+                    "Schedule fluid updates only for water and lava that blue holes and mega ocean ravines leave",
+                    "next to air, another fluid or a chunk edge once all carvers of a chunk have run, instead of",
+                    "for every carved fluid block. Applies in dimensions generated by the_expanse:noise; avoids the",
+                    "burst of fluid ticks when freshly generated ocean chunks first load.")
+            .define("settleCarvedFluids", true);
+
+    public static final ModConfigSpec.BooleanValue BATCHED_DENSITY = BUILDER
+            .comment(
+                    "Evaluate the arithmetic around the terrain slides (add, mul, min, max, clamp, the unary maps",
+                    "and y_clamped_gradient) a whole interpolation column at a time instead of point by point.",
+                    "Results are identical; takes effect for worlds loaded after the change.")
+            .define("batchedDensity", false);
+
+    public static final ModConfigSpec.BooleanValue CLIP_NOISE_FILL = BUILDER
+            .comment(
+                    "Stop filling terrain noise at the lowest Y above which the noise settings, structures and",
+                    "fluids can only produce air, instead of evaluating the interpolator up to the build limit.",
+                    "Results are identical; chunks next to pre-1.18 terrain that blend are always filled in full.")
+            .define("clipNoiseFill", false);
+
+    public static final ModConfigSpec.BooleanValue ELIDE_EMPTY_SECTIONS = BUILDER
+            .comment(
+                    "Leave all-air, single-biome sections out of saved chunks in dimensions generated by",
+                    "the_expanse:noise; their biome is recorded compactly and restored on load. Chunks saved this",
+                    "way still load with the setting off. For faster region compression, set",
+                    "region-file-compression=lz4 in server.properties.")
+            .define("elideEmptySections", false);
+
+    static {
+        BUILDER.pop();
+    }
+
+    public static final ModConfigSpec SPEC = BUILDER.build();
+
+    private ExpanseConfig() { }
+
+    /** Configured plan cache size, or its default when the config has not been loaded (tests, benchmarks). */
+    public static int carverPlanCacheSize() {
+        return SPEC.isLoaded() ? CARVER_PLAN_CACHE_SIZE.get() : CARVER_PLAN_CACHE_SIZE.getDefault();
+    }
+
+    /** Whether ocean carvers settle their fluids, or the default when the config has not been loaded. */
+    public static boolean settleCarvedFluids() {
+        return SPEC.isLoaded() ? SETTLE_CARVED_FLUIDS.get() : SETTLE_CARVED_FLUIDS.getDefault();
+    }
+
+    /** Whether {@code the_expanse:batched} compiles its argument, or the default when the config has not been loaded. */
+    public static boolean batchedDensity() {
+        return SPEC.isLoaded() ? BATCHED_DENSITY.get() : BATCHED_DENSITY.getDefault();
+    }
+
+    /** Whether {@code the_expanse:noise} clips its noise fill, or the default when the config has not been loaded. */
+    public static boolean clipNoiseFill() {
+        return SPEC.isLoaded() ? CLIP_NOISE_FILL.get() : CLIP_NOISE_FILL.getDefault();
+    }
+
+    /** Whether empty sections are left out of saved chunks, or the default when the config has not been loaded. */
+    public static boolean elideEmptySections() {
+        return SPEC.isLoaded() ? ELIDE_EMPTY_SECTIONS.get() : ELIDE_EMPTY_SECTIONS.getDefault();
+    }
+}
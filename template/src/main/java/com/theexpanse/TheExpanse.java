@@ -4,17 +4,33 @@ import net.minecraft.resources.ResourceLocation;
 import net.neoforged.bus.api.IEventBus;
 import net.neoforged.fml.ModContainer;
 import net.neoforged.fml.common.Mod;
+import net.neoforged.fml.config.ModConfig;
 
 import com.theexpanse.worldgen.OreScaler;
+import com.theexpanse.worldgen.carver.CarverPlanCache;
 import com.theexpanse.worldgen.carver.CarverRegistry;
+import com.theexpanse.worldgen.density.DensityFunctionRegistry;
+import com.theexpanse.worldgen.feature.FeatureRegistry;
+import com.theexpanse.worldgen.generator.ChunkGeneratorRegistry;
+import com.theexpanse.worldgen.generator.EmptySectionElision;
+import com.theexpanse.worldgen.placement.PlacementRegistry;
+import com.theexpanse.worldgen.surface.SurfaceRuleRegistry;
 
 @Mod(TheExpanse.MOD_ID)
 public final class TheExpanse {
     public static final String MOD_ID = "the_expanse";
 
     public TheExpanse(IEventBus modBus, ModContainer container) {
+        container.registerConfig(ModConfig.Type.COMMON, ExpanseConfig.SPEC);
         CarverRegistry.register(modBus);
+        DensityFunctionRegistry.register(modBus);
+        FeatureRegistry.register(modBus);
+        ChunkGeneratorRegistry.register(modBus);
+        PlacementRegistry.register(modBus);
+        SurfaceRuleRegistry.register(modBus);
         OreScaler.register();
+        CarverPlanCache.register();
+        EmptySectionElision.register();
     }
 
     public static ResourceLocation id(String path) {
@@ -0,0 +1,197 @@
+package com.theexpanse.worldgen;
+
+import net.minecraft.world.level.levelgen.VerticalAnchor;
+import net.minecraft.world.level.levelgen.heightproviders.BiasedToBottomHeight;
+import net.minecraft.world.level.levelgen.heightproviders.ConstantHeight;
+import net.minecraft.world.level.levelgen.heightproviders.HeightProvider;
+import net.minecraft.world.level.levelgen.heightproviders.TrapezoidHeight;
+import net.minecraft.world.level.levelgen.heightproviders.UniformHeight;
+import net.minecraft.world.level.levelgen.heightproviders.VeryBiasedToBottomHeight;
+import net.minecraft.world.level.levelgen.heightproviders.WeightedListHeight;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Rewrites vanilla {@link HeightProvider} trees directly, without going through their codecs.
+ *
+ * <p>Results are memoised by provider identity, so a provider shared by many placed features is only
+ * rewritten once per scaling pass. The memo is shared by all workers of a pass; two workers racing on the
+ * same provider both produce equivalent results, so the last write simply wins. {@link #scale} returns
+ * {@code null} for provider or anchor types it does not understand, in which case callers fall back to the
+ * codec round-trip.
+ */
+final class HeightProviderScaler {
+    private static final MethodHandle UNIFORM_MIN = findGetter(UniformHeight.class, "minInclusive", VerticalAnchor.class);
+    private static final MethodHandle UNIFORM_MAX = findGetter(UniformHeight.class, "maxInclusive", VerticalAnchor.class);
+    private static final MethodHandle TRAPEZOID_MIN =
+        findGetter(TrapezoidHeight.class, "minInclusive", VerticalAnchor.class);
+    private static final MethodHandle TRAPEZOID_MAX =
+        findGetter(TrapezoidHeight.class, "maxInclusive", VerticalAnchor.class);
+    private static final MethodHandle TRAPEZOID_PLATEAU = findGetter(TrapezoidHeight.class, "plateau", int.class);
+    private static final MethodHandle BIASED_MIN =
+        findGetter(BiasedToBottomHeight.class, "minInclusive", VerticalAnchor.class);
+    private static final MethodHandle BIASED_MAX =
+        findGetter(BiasedToBottomHeight.class, "maxInclusive", VerticalAnchor.class);
+    private static final MethodHandle BIASED_INNER = findGetter(BiasedToBottomHeight.class, "inner", int.class);
+    private static final MethodHandle VERY_BIASED_MIN =
+        findGetter(VeryBiasedToBottomHeight.class, "minInclusive", VerticalAnchor.class);
+    private static final MethodHandle VERY_BIASED_MAX =
+        findGetter(VeryBiasedToBottomHeight.class, "maxInclusive", VerticalAnchor.class);
+    private static final MethodHandle VERY_BIASED_INNER =
+        findGetter(VeryBiasedToBottomHeight.class, "inner", int.class);
+    private static final Class<?> WEIGHTED_DISTRIBUTION_TYPE = findFieldType(WeightedListHeight.class, "distribution");
+    private static final MethodHandle WEIGHTED_DISTRIBUTION =
+        findGetter(WeightedListHeight.class, "distribution", WEIGHTED_DISTRIBUTION_TYPE);
+    private static final MethodHandle WEIGHTED_MAP = findDistributionMap();
+    private static final MethodHandle WEIGHTED_CONSTRUCTOR = findWeightedConstructor();
+
+    private final UnaryOperator<VerticalAnchor> anchorScaler;
+    private final Map<HeightProvider, Optional<HeightProvider>> memo =
+        Collections.synchronizedMap(new IdentityHashMap<>());
+
+    HeightProviderScaler(UnaryOperator<VerticalAnchor> anchorScaler) {
+        this.anchorScaler = anchorScaler;
+    }
+
+    HeightProvider scale(HeightProvider provider) {
+        Optional<HeightProvider> cached = memo.get(provider);
+        if (cached == null) {
+            cached = Optional.ofNullable(rewrite(provider));
+            memo.put(provider, cached);
+        }
+        return cached.orElse(null);
+    }
+
+    private HeightProvider rewrite(HeightProvider provider) {
+        try {
+            Class<?> type = provider.getClass();
+            if (type == ConstantHeight.class) {
+                VerticalAnchor value = scaleAnchor(((ConstantHeight) provider).getValue());
+                return value != null ? ConstantHeight.of(value) : null;
+            }
+            if (type == UniformHeight.class) {
+                VerticalAnchor min = scaleAnchor(UNIFORM_MIN, provider);
+                VerticalAnchor max = scaleAnchor(UNIFORM_MAX, provider);
+                return min != null && max != null ? UniformHeight.of(min, max) : null;
+            }
+            if (type == TrapezoidHeight.class) {
+                VerticalAnchor min = scaleAnchor(TRAPEZOID_MIN, provider);
+                VerticalAnchor max = scaleAnchor(TRAPEZOID_MAX, provider);
+                if (min == null || max == null || TRAPEZOID_PLATEAU == null) {
+                    return null;
+                }
+                return TrapezoidHeight.of(min, max, (int) TRAPEZOID_PLATEAU.invoke(provider));
+            }
+            if (type == BiasedToBottomHeight.class) {
+                VerticalAnchor min = scaleAnchor(BIASED_MIN, provider);
+                VerticalAnchor max = scaleAnchor(BIASED_MAX, provider);
+                if (min == null || max == null || BIASED_INNER == null) {
+                    return null;
+                }
+                return BiasedToBottomHeight.of(min, max, (int) BIASED_INNER.invoke(provider));
+            }
+            if (type == VeryBiasedToBottomHeight.class) {
+                VerticalAnchor min = scaleAnchor(VERY_BIASED_MIN, provider);
+                VerticalAnchor max = scaleAnchor(VERY_BIASED_MAX, provider);
+                if (min == null || max == null || VERY_BIASED_INNER == null) {
+                    return null;
+                }
+                return VeryBiasedToBottomHeight.of(min, max, (int) VERY_BIASED_INNER.invoke(provider));
+            }
+            if (type == WeightedListHeight.class) {
+                return rewriteWeightedList(provider);
+            }
+        } catch (Throwable throwable) {
+            throw new IllegalStateException("Failed to rewrite height provider " + provider, throwable);
+        }
+        return null;
+    }
+
+    private HeightProvider rewriteWeightedList(HeightProvider provider) throws Throwable {
+        if (WEIGHTED_DISTRIBUTION == null || WEIGHTED_MAP == null || WEIGHTED_CONSTRUCTOR == null) {
+            return null;
+        }
+
+        boolean[] unsupported = new boolean[1];
+        Function<Object, Object> mapper = entry -> {
+            HeightProvider scaled = entry instanceof HeightProvider inner ? scale(inner) : null;
+            if (scaled == null) {
+                unsupported[0] = true;
+                return entry;
+            }
+            return scaled;
+        };
+
+        Object distribution = WEIGHTED_DISTRIBUTION.invoke(provider);
+        Object mapped = WEIGHTED_MAP.invoke(distribution, mapper);
+        if (unsupported[0]) {
+            return null;
+        }
+        return (HeightProvider) WEIGHTED_CONSTRUCTOR.invoke(mapped);
+    }
+
+    private VerticalAnchor scaleAnchor(MethodHandle getter, HeightProvider provider) throws Throwable {
+        if (getter == null) {
+            return null;
+        }
+        return scaleAnchor((VerticalAnchor) getter.invoke(provider));
+    }
+
+    private VerticalAnchor scaleAnchor(VerticalAnchor anchor) {
+        return anchor != null ? anchorScaler.apply(anchor) : null;
+    }
+
+    private static MethodHandle findGetter(Class<?> owner, String name, Class<?> type) {
+        if (type == null) {
+            return null;
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+            return lookup.findGetter(owner, name, type);
+        } catch (NoSuchFieldException | IllegalAccessException ignored) {
+            return null;
+        }
+    }
+
+    private static Class<?> findFieldType(Class<?> owner, String name) {
+        try {
+            Field field = owner.getDeclaredField(name);
+            return field.getType();
+        } catch (NoSuchFieldException ignored) {
+            return null;
+        }
+    }
+
+    private static MethodHandle findDistributionMap() {
+        if (WEIGHTED_DISTRIBUTION_TYPE == null) {
+            return null;
+        }
+        try {
+            MethodType signature = MethodType.methodType(WEIGHTED_DISTRIBUTION_TYPE, Function.class);
+            return MethodHandles.lookup().findVirtual(WEIGHTED_DISTRIBUTION_TYPE, "map", signature);
+        } catch (NoSuchMethodException | IllegalAccessException ignored) {
+            return null;
+        }
+    }
+
+    private static MethodHandle findWeightedConstructor() {
+        if (WEIGHTED_DISTRIBUTION_TYPE == null) {
+            return null;
+        }
+        try {
+            MethodType signature = MethodType.methodType(void.class, WEIGHTED_DISTRIBUTION_TYPE);
+            return MethodHandles.lookup().findConstructor(WeightedListHeight.class, signature);
+        } catch (NoSuchMethodException | IllegalAccessException ignored) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.theexpanse.worldgen;
+
+import net.minecraft.core.Holder;
+import net.minecraft.core.Registry;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.level.levelgen.feature.ConfiguredFeature;
+import net.minecraft.world.level.levelgen.feature.Feature;
+import net.minecraft.world.level.levelgen.feature.configurations.OreConfiguration;
+import net.minecraft.world.level.levelgen.placement.PlacedFeature;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Classifies every placed feature in the registry as an ore (or not) once per reload.
+ *
+ * <p>A feature counts as an ore when its configured feature is driven by an {@link OreConfiguration}, or
+ * when it is listed in one of the {@link #ORE_TAGS}. Classification only reads each holder's value and bound
+ * tags, so it runs in parallel and is cheap to rebuild for registries with thousands of placed features.
+ */
+public final class OreFeatureIndex {
+    public static final List<TagKey<PlacedFeature>> ORE_TAGS = List.of(
+        TagKey.create(Registries.PLACED_FEATURE, ResourceLocation.fromNamespaceAndPath("forge", "ores")),
+        TagKey.create(Registries.PLACED_FEATURE, ResourceLocation.fromNamespaceAndPath("c", "ores")));
+
+    private static final MethodHandle REGISTRY_LIST_ELEMENTS = findVirtual(Registry.class, "listElements");
+    private static final MethodHandle REGISTRY_HOLDERS = findVirtual(Registry.class, "holders");
+    private static final OreFeatureIndex EMPTY = new OreFeatureIndex(List.of());
+
+    private static volatile OreFeatureIndex current = EMPTY;
+
+    private final List<Entry> entries;
+    private final List<Holder.Reference<PlacedFeature>> ores;
+    private final Map<Kind, List<Holder.Reference<PlacedFeature>>> byKind;
+    private final List<Holder.Reference<PlacedFeature>> tagged;
+
+    private OreFeatureIndex(List<Entry> entries) {
+        this.entries = entries;
+        this.ores = entries.stream().map(Entry::reference).collect(Collectors.toUnmodifiableList());
+        this.byKind = new EnumMap<>(Kind.class);
+        List<Holder.Reference<PlacedFeature>> tagged = new ArrayList<>();
+        for (Entry entry : entries) {
+            byKind.computeIfAbsent(entry.kind(), kind -> new ArrayList<>()).add(entry.reference());
+            if (entry.tagged()) {
+                tagged.add(entry.reference());
+            }
+        }
+        this.tagged = Collections.unmodifiableList(tagged);
+    }
+
+    /**
+     * Returns the index published by the most recent reload.
+     */
+    public static OreFeatureIndex current() {
+        return current;
+    }
+
+    static void publish(OreFeatureIndex index) {
+        current = Objects.requireNonNull(index);
+    }
+
+    public static OreFeatureIndex build(Registry<PlacedFeature> registry) {
+        List<Entry> entries = listHolders(registry).parallelStream()
+            .map(OreFeatureIndex::classify)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+        return new OreFeatureIndex(Collections.unmodifiableList(entries));
+    }
+
+    /**
+     * Every ore placed feature, whether it was found by feature type or by tag, in registry order.
+     */
+    public List<Holder.Reference<PlacedFeature>> ores() {
+        return ores;
+    }
+
+    public List<Holder.Reference<PlacedFeature>> byKind(Kind kind) {
+        return Collections.unmodifiableList(byKind.getOrDefault(kind, List.of()));
+    }
+
+    public List<Holder.Reference<PlacedFeature>> tagged() {
+        return tagged;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static Entry classify(Holder.Reference<PlacedFeature> reference) {
+        boolean tagged = reference.tags().anyMatch(ORE_TAGS::contains);
+        Kind kind = classifyFeature(reference.value().feature().value());
+        if (kind == Kind.OTHER && !tagged) {
+            return null;
+        }
+        return new Entry(reference, kind, tagged);
+    }
+
+    private static Kind classifyFeature(ConfiguredFeature<?, ?> configured) {
+        Feature<?> feature = configured.feature();
+        if (feature == Feature.ORE) {
+            return Kind.ORE;
+        }
+        if (feature == Feature.SCATTERED_ORE) {
+            return Kind.SCATTERED_ORE;
+        }
+        if (configured.config() instanceof OreConfiguration) {
+            return Kind.ORE_CONFIGURED;
+        }
+        return Kind.OTHER;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Holder.Reference<PlacedFeature>> listHolders(Registry<PlacedFeature> registry) {
+        try {
+            MethodHandle handle = REGISTRY_LIST_ELEMENTS != null ? REGISTRY_LIST_ELEMENTS : REGISTRY_HOLDERS;
+            if (handle == null) {
+                throw new IllegalStateException("No compatible Registry holder listing method is available");
+            }
+            try (Stream<Holder.Reference<PlacedFeature>> stream =
+                     (Stream<Holder.Reference<PlacedFeature>>) handle.invoke(registry)) {
+                return stream.collect(Collectors.toList());
+            }
+        } catch (Throwable throwable) {
+            throw new IllegalStateException("Failed to list placed feature holders", throwable);
+        }
+    }
+
+    private static MethodHandle findVirtual(Class<?> owner, String name) {
+        try {
+            return MethodHandles.lookup().findVirtual(owner, name, MethodType.methodType(Stream.class));
+        } catch (NoSuchMethodException | IllegalAccessException ignored) {
+            return null;
+        }
+    }
+
+    public enum Kind {
+        /** Placed by {@code minecraft:ore}. */
+        ORE,
+        /** Placed by {@code minecraft:scattered_ore}. */
+        SCATTERED_ORE,
+        /** Any other feature type configured with an {@link OreConfiguration}. */
+        ORE_CONFIGURED,
+        /** Not recognisable by feature type, but listed in one of the ore tags. */
+        OTHER
+    }
+
+    private record Entry(Holder.Reference<PlacedFeature> reference, Kind kind, boolean tagged) {
+    }
+}
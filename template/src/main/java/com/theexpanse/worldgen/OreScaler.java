@@ -1,13 +1,13 @@
 package com.theexpanse.worldgen;
 
 import com.theexpanse.TheExpanse;
+import com.theexpanse.worldgen.placement.PopulatedSectionHeightPlacement;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.JsonOps;
 import net.minecraft.core.Holder;
-import net.minecraft.core.HolderSet;
 import net.minecraft.core.Registry;
 import net.minecraft.core.RegistryAccess;
 import net.minecraft.core.registries.Registries;
@@ -16,9 +16,10 @@ import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.resources.PreparableReloadListener;
 import net.minecraft.server.packs.resources.ResourceManager;
 import net.minecraft.server.packs.resources.SimplePreparableReloadListener;
-import net.minecraft.tags.TagKey;
 import net.minecraft.util.Mth;
 import net.minecraft.util.profiling.ProfilerFiller;
+import net.minecraft.world.level.levelgen.VerticalAnchor;
+import net.minecraft.world.level.levelgen.heightproviders.HeightProvider;
 import net.minecraft.world.level.levelgen.placement.HeightRangePlacement;
 import net.minecraft.world.level.levelgen.placement.PlacedFeature;
 import net.minecraft.world.level.levelgen.placement.PlacementModifier;
@@ -31,6 +32,8 @@ import java.lang.invoke.MethodType;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.function.Consumer;
 
 public final class OreScaler {
@@ -40,10 +43,8 @@ public final class OreScaler {
     private static final int VANILLA_MIN = -64;
     private static final int VANILLA_MAX = VANILLA_MIN + VANILLA_RANGE;
 
-    private static final TagKey<PlacedFeature> ORE_TAG =
-        TagKey.create(Registries.PLACED_FEATURE, ResourceLocation.fromNamespaceAndPath("forge", "ores"));
-
     private static final MethodHandle BIND_VALUE = findBindValueHandle();
+    private static final MethodHandle HEIGHT_RANGE_HEIGHT = findHeightRangeHeightHandle();
     private static final Class<?> LEGACY_EVENT_CLASS =
         findClass("net.neoforged.neoforge.event.AddReloadListenerEvent");
     private static final Class<?> MODERN_EVENT_CLASS =
@@ -54,10 +55,9 @@ public final class OreScaler {
     private static final MethodHandle MODERN_GET_ACCESS = findModernAccessHandle();
     private static final MethodHandle REGISTRY_OR_THROW = findRegistryOrThrowHandle();
     private static final MethodHandle LOOKUP_OR_THROW = findLookupOrThrowHandle();
-    private static final MethodHandle REGISTRY_GET_TAG = findRegistryGetTagHandle();
-    private static final MethodHandle REGISTRY_GET = findRegistryGetHandle();
     private static final ResourceLocation LISTENER_ID =
         ResourceLocation.fromNamespaceAndPath(TheExpanse.MOD_ID, "ore_scaler");
+    private static final ScaledPlacementRegistry SCALED_STATES = new ScaledPlacementRegistry();
 
     private OreScaler() {
     }
@@ -67,47 +67,74 @@ public final class OreScaler {
         registerListener(LEGACY_EVENT_CLASS, OreScaler::handleLegacyReload);
     }
 
-    private static void scaleOrePlacements(RegistryAccess access) {
-        Registry<PlacedFeature> registry = resolvePlacedFeatureRegistry(access);
-        Optional<HolderSet.Named<PlacedFeature>> ores = resolveOreTag(registry);
-        if (ores.isEmpty()) {
-            return;
-        }
-
-        for (Holder<PlacedFeature> holder : ores.get()) {
-            if (!(holder instanceof Holder.Reference<PlacedFeature> reference)) {
-                continue;
-            }
+    private static PreparedScaling prepareScaling(RegistryAccess access) {
+        OreFeatureIndex index = OreFeatureIndex.build(resolvePlacedFeatureRegistry(access));
+        List<Holder.Reference<PlacedFeature>> references = index.ores();
+        ScaleTask task = new ScaleTask(references, 0, references.size(), newHeightScaler());
+        return new PreparedScaling(index, ForkJoinPool.commonPool().invoke(task));
+    }
 
-            PlacedFeature feature = reference.value();
-            List<PlacementModifier> modifiers = feature.placement();
-            List<PlacementModifier> updated = new ArrayList<>(modifiers.size());
-            boolean changed = false;
+    private static void applyScaling(PreparedScaling prepared) {
+        OreFeatureIndex.publish(prepared.index());
+        applyScaledPlacements(prepared.placements());
+    }
 
-            for (PlacementModifier modifier : modifiers) {
-                PlacementModifier scaled = scaleModifier(modifier);
-                if (scaled != modifier) {
-                    changed = true;
-                }
-                updated.add(scaled);
+    private static void applyScaledPlacements(List<ScaledPlacement> placements) {
+        for (ScaledPlacement placement : placements) {
+            if (placement.replacement() != placement.reference().value()) {
+                bindReferenceValue(placement.reference(), placement.replacement());
             }
+            SCALED_STATES.record(placement.reference(), placement.replacement());
+        }
+    }
+
+    static PlacedFeature scaleFeature(PlacedFeature feature, HeightProviderScaler heightScaler) {
+        List<PlacementModifier> modifiers = feature.placement();
+        List<PlacementModifier> updated = new ArrayList<>(modifiers.size());
+        boolean changed = false;
 
-            if (changed) {
-                PlacedFeature replacement = new PlacedFeature(feature.feature(), List.copyOf(updated));
-                bindReferenceValue(reference, replacement);
+        for (PlacementModifier modifier : modifiers) {
+            PlacementModifier scaled = scaleModifier(modifier, heightScaler);
+            if (scaled != modifier) {
+                changed = true;
             }
+            updated.add(scaled);
         }
+
+        return changed ? new PlacedFeature(feature.feature(), List.copyOf(updated)) : null;
+    }
+
+    static HeightProviderScaler newHeightScaler() {
+        return new HeightProviderScaler(OreScaler::scaleAnchor);
     }
 
-    private static PlacementModifier scaleModifier(PlacementModifier modifier) {
+    private static PlacementModifier scaleModifier(PlacementModifier modifier, HeightProviderScaler heightScaler) {
         if (modifier instanceof HeightRangePlacement range) {
-            HeightRangePlacement scaled = scaleHeightRange(range);
+            HeightRangePlacement scaled = scaleHeightRange(range, heightScaler);
             return scaled != null ? scaled : modifier;
         }
+        if (modifier instanceof PopulatedSectionHeightPlacement populated) {
+            HeightProvider scaled = heightScaler.scale(populated.height());
+            if (scaled == null) {
+                scaled = scaleHeightProviderWithCodec(populated.height());
+            }
+            return scaled != null ? populated.withHeight(scaled) : modifier;
+        }
         return modifier;
     }
 
-    private static HeightRangePlacement scaleHeightRange(HeightRangePlacement original) {
+    static HeightRangePlacement scaleHeightRange(HeightRangePlacement original, HeightProviderScaler heightScaler) {
+        HeightProvider height = readHeight(original);
+        if (height != null) {
+            HeightProvider scaled = heightScaler.scale(height);
+            if (scaled != null) {
+                return HeightRangePlacement.of(scaled);
+            }
+        }
+        return scaleHeightRangeWithCodec(original);
+    }
+
+    static HeightRangePlacement scaleHeightRangeWithCodec(HeightRangePlacement original) {
         Codec<HeightRangePlacement> codec = HeightRangePlacement.CODEC.codec();
         Optional<JsonElement> encoded = codec.encodeStart(JsonOps.INSTANCE, original).result();
         if (encoded.isEmpty()) {
@@ -122,6 +149,38 @@ public final class OreScaler {
         return codec.parse(JsonOps.INSTANCE, json).result().orElse(null);
     }
 
+    private static HeightProvider scaleHeightProviderWithCodec(HeightProvider original) {
+        Optional<JsonElement> encoded = HeightProvider.CODEC.encodeStart(JsonOps.INSTANCE, original).result();
+        if (encoded.isEmpty() || !scaleAnchors(encoded.get())) {
+            return null;
+        }
+        return HeightProvider.CODEC.parse(JsonOps.INSTANCE, encoded.get()).result().orElse(null);
+    }
+
+    private static HeightProvider readHeight(HeightRangePlacement placement) {
+        if (HEIGHT_RANGE_HEIGHT == null) {
+            return null;
+        }
+        try {
+            return (HeightProvider) HEIGHT_RANGE_HEIGHT.invoke(placement);
+        } catch (Throwable throwable) {
+            throw new IllegalStateException("Failed to read height range provider", throwable);
+        }
+    }
+
+    private static VerticalAnchor scaleAnchor(VerticalAnchor anchor) {
+        if (anchor instanceof VerticalAnchor.Absolute absolute) {
+            return VerticalAnchor.absolute(scaleY(absolute.y()));
+        }
+        if (anchor instanceof VerticalAnchor.AboveBottom aboveBottom) {
+            return VerticalAnchor.absolute(scaleY(VANILLA_MIN + aboveBottom.offset()));
+        }
+        if (anchor instanceof VerticalAnchor.BelowTop belowTop) {
+            return VerticalAnchor.absolute(scaleY(VANILLA_MAX - belowTop.offset()));
+        }
+        return null;
+    }
+
     private static boolean scaleAnchors(JsonElement element) {
         if (element instanceof JsonObject object) {
             boolean changed = scaleAnchorObject(object);
@@ -204,20 +263,6 @@ public final class OreScaler {
         throw new IllegalStateException("No compatible RegistryAccess lookup method is available");
     }
 
-    private static Optional<HolderSet.Named<PlacedFeature>> resolveOreTag(Registry<PlacedFeature> registry) {
-        try {
-            if (REGISTRY_GET_TAG != null) {
-                return (Optional<HolderSet.Named<PlacedFeature>>) REGISTRY_GET_TAG.invoke(registry, ORE_TAG);
-            }
-            if (REGISTRY_GET != null) {
-                return (Optional<HolderSet.Named<PlacedFeature>>) REGISTRY_GET.invoke(registry, ORE_TAG);
-            }
-        } catch (Throwable throwable) {
-            throw new IllegalStateException("Failed to resolve ore placed feature tag", throwable);
-        }
-        return Optional.empty();
-    }
-
     private static void handleLegacyReload(Object rawEvent) {
         RegistryAccess access = extractRegistryAccess(LEGACY_GET_ACCESS, rawEvent);
         if (access == null || LEGACY_ADD_LISTENER == null) {
@@ -262,15 +307,15 @@ public final class OreScaler {
     }
 
     private static PreparableReloadListener createReloadListener(final RegistryAccess access) {
-        return new SimplePreparableReloadListener<Void>() {
+        return new SimplePreparableReloadListener<PreparedScaling>() {
             @Override
-            protected Void prepare(ResourceManager resourceManager, ProfilerFiller profiler) {
-                return null;
+            protected PreparedScaling prepare(ResourceManager resourceManager, ProfilerFiller profiler) {
+                return prepareScaling(access);
             }
 
             @Override
-            protected void apply(Void unused, ResourceManager resourceManager, ProfilerFiller profiler) {
-                scaleOrePlacements(access);
+            protected void apply(PreparedScaling prepared, ResourceManager resourceManager, ProfilerFiller profiler) {
+                applyScaling(prepared);
             }
         };
     }
@@ -297,6 +342,16 @@ public final class OreScaler {
         }
     }
 
+    private static MethodHandle findHeightRangeHeightHandle() {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(
+                HeightRangePlacement.class, MethodHandles.lookup());
+            return lookup.findGetter(HeightRangePlacement.class, "height", HeightProvider.class);
+        } catch (NoSuchFieldException | IllegalAccessException ignored) {
+            return null;
+        }
+    }
+
     private static Class<?> findClass(String name) {
         try {
             return Class.forName(name);
@@ -330,14 +385,6 @@ public final class OreScaler {
         return findVirtual(RegistryAccess.class, "lookupOrThrow", Registry.class, ResourceKey.class);
     }
 
-    private static MethodHandle findRegistryGetTagHandle() {
-        return findVirtual(Registry.class, "getTag", Optional.class, TagKey.class);
-    }
-
-    private static MethodHandle findRegistryGetHandle() {
-        return findVirtual(Registry.class, "get", Optional.class, TagKey.class);
-    }
-
     private static MethodHandle findVirtual(
         Class<?> owner, String name, Class<?> returnType, Class<?>... parameterTypes) {
         if (owner == null) {
@@ -358,4 +405,59 @@ public final class OreScaler {
             throw new IllegalStateException("Unable to rebind placed feature", throwable);
         }
     }
+
+    private record PreparedScaling(OreFeatureIndex index, List<ScaledPlacement> placements) {
+    }
+
+    private record ScaledPlacement(Holder.Reference<PlacedFeature> reference, PlacedFeature original,
+                                   PlacedFeature replacement) {
+    }
+
+    /**
+     * Scales a slice of the tagged holders, splitting until slices are small enough to run inline.
+     */
+    private static final class ScaleTask extends RecursiveTask<List<ScaledPlacement>> {
+        private static final int SPLIT_THRESHOLD = 32;
+
+        private final List<Holder.Reference<PlacedFeature>> references;
+        private final int start;
+        private final int end;
+        private final HeightProviderScaler heightScaler;
+
+        private ScaleTask(List<Holder.Reference<PlacedFeature>> references, int start, int end,
+                          HeightProviderScaler heightScaler) {
+            this.references = references;
+            this.start = start;
+            this.end = end;
+            this.heightScaler = heightScaler;
+        }
+
+        @Override
+        protected List<ScaledPlacement> compute() {
+            if (end - start <= SPLIT_THRESHOLD) {
+                List<ScaledPlacement> scaled = new ArrayList<>();
+                for (int i = start; i < end; i++) {
+                    Holder.Reference<PlacedFeature> reference = references.get(i);
+                    PlacedFeature original = SCALED_STATES.pendingOriginal(reference);
+                    if (original == null) {
+                        continue;
+                    }
+
+                    PlacedFeature replacement = scaleFeature(original, heightScaler);
+                    scaled.add(new ScaledPlacement(reference, original,
+                        replacement != null ? replacement : original));
+                }
+                return scaled;
+            }
+
+            int middle = (start + end) >>> 1;
+            ScaleTask left = new ScaleTask(references, start, middle, heightScaler);
+            ScaleTask right = new ScaleTask(references, middle, end, heightScaler);
+            left.fork();
+            List<ScaledPlacement> rightResult = right.compute();
+            List<ScaledPlacement> merged = new ArrayList<>(left.join());
+            merged.addAll(rightResult);
+            return merged;
+        }
+    }
 }
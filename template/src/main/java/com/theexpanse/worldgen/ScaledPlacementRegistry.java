@@ -0,0 +1,37 @@
+package com.theexpanse.worldgen;
+
+import net.minecraft.core.Holder;
+import net.minecraft.world.level.levelgen.placement.PlacedFeature;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Remembers which placed feature holders the ore scaler has already rewritten, and the value it bound.
+ *
+ * <p>The only skip condition is identity: a holder that still carries the exact value this registry bound was
+ * scaled by an earlier pass and is left alone, which is also what keeps absolute anchors from being scaled twice.
+ * Any other value (a datapack or another mod rebound the holder) is taken as a new original. Scaling constants
+ * are compile-time, so they cannot change between passes.
+ *
+ * <p>Holders are weakly referenced, so entries for registries that were discarded (for example after
+ * leaving a world) disappear on their own.
+ */
+final class ScaledPlacementRegistry {
+    private final Map<Holder.Reference<PlacedFeature>, PlacedFeature> scaled =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Returns the feature the holder should be scaled from, or {@code null} when the holder still carries the
+     * value this registry bound.
+     */
+    PlacedFeature pendingOriginal(Holder.Reference<PlacedFeature> reference) {
+        PlacedFeature current = reference.value();
+        return scaled.get(reference) == current ? null : current;
+    }
+
+    void record(Holder.Reference<PlacedFeature> reference, PlacedFeature bound) {
+        scaled.put(reference, bound);
+    }
+}
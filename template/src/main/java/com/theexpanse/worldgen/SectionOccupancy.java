@@ -0,0 +1,49 @@
+package com.theexpanse.worldgen;
+
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+
+/**
+ * Which sections of a chunk hold anything.
+ *
+ * <p>A 2288-block chunk has 143 sections, and most of them are empty sky. Every {@code setBlockState} keeps each
+ * section's non-air block count up to date, so {@link LevelChunkSection#hasOnlyAir()} is an occupancy bit that
+ * is always current. These helpers read those bits, so there is no second index to keep in sync. Downward scans
+ * start at the highest occupied section and step over empty sections whole, instead of walking down from the
+ * dimension top one block at a time.
+ *
+ * <p>Vanilla heightmap priming already starts at the highest filled section; these are for our own carvers.
+ */
+public final class SectionOccupancy {
+    /** Returned when no section at or below the requested one holds a block. */
+    public static final int NONE = -1;
+
+    private SectionOccupancy() {
+    }
+
+    /** Index of the highest section holding a non-air block, or {@link #NONE}. */
+    public static int highestOccupiedSection(ChunkAccess chunk) {
+        return occupiedSectionAtOrBelow(chunk, chunk.getSectionsCount() - 1);
+    }
+
+    /** Index of the highest occupied section at or below {@code sectionIndex}, or {@link #NONE}. */
+    public static int occupiedSectionAtOrBelow(ChunkAccess chunk, int sectionIndex) {
+        LevelChunkSection[] sections = chunk.getSections();
+        for (int index = Math.min(sectionIndex, sections.length - 1); index >= 0; index--) {
+            if (!sections[index].hasOnlyAir()) {
+                return index;
+            }
+        }
+        return NONE;
+    }
+
+    /** Highest Y of the highest occupied section, or one below the chunk's lowest Y when it is empty. */
+    public static int occupiedCeiling(ChunkAccess chunk) {
+        int section = highestOccupiedSection(chunk);
+        if (section == NONE) {
+            return SectionPos.sectionToBlockCoord(chunk.getSectionYFromSectionIndex(0)) - 1;
+        }
+        return SectionPos.sectionToBlockCoord(chunk.getSectionYFromSectionIndex(section)) + 15;
+    }
+}
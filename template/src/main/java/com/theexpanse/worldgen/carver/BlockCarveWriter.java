@@ -0,0 +1,223 @@
+package com.theexpanse.worldgen.carver;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.CarvingMask;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.levelgen.Aquifer;
+import net.minecraft.world.level.levelgen.DensityFunction;
+import net.minecraft.world.level.levelgen.carver.CarverConfiguration;
+import net.minecraft.world.level.levelgen.carver.CarvingContext;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Per-thread block writer shared by The Expanse carvers.
+ *
+ * <p>Mirrors {@code WorldCarver#carveBlock}: carving-mask bookkeeping, replaceable check, lava level, aquifer
+ * substance, fluid post-processing and the grass/mycelium top-material fix-up. Unlike vanilla it reuses a
+ * mutable position and density context and memoises the replaceable check for the last block state seen, so
+ * the per-block path does not allocate. Biomes for the fix-up come from the accessor vanilla hands the carver,
+ * including its fuzzy zoom. Carver debug visualisation is not supported.
+ *
+ * <p>With {@code settleFluids} the writer also records every fluid it marks in the chunk's {@link SettledFluids},
+ * which drops the marks of those still enclosed once all of the chunk's carvers have run.
+ *
+ * <p>Use {@link #begin} at the start of a {@code carve} call and {@link #end} in a {@code finally} block.
+ */
+final class BlockCarveWriter {
+    private static final ThreadLocal<BlockCarveWriter> WRITERS = ThreadLocal.withInitial(BlockCarveWriter::new);
+    private static final BlockState LAVA = Blocks.LAVA.defaultBlockState();
+
+    private final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+    private final BlockPos.MutableBlockPos below = new BlockPos.MutableBlockPos();
+    private final MutableFunctionContext point = new MutableFunctionContext();
+    private final long[] reachedSurface = new long[4];
+
+    private CarvingContext context;
+    private CarverConfiguration config;
+    private ChunkAccess chunk;
+    private Function<BlockPos, Holder<Biome>> biomeAccessor;
+    private Aquifer aquifer;
+    private CarvingMask mask;
+    private int lavaLevel;
+    private int minBlockX;
+    private int minBlockZ;
+    private BlockState lastState;
+    private boolean lastReplaceable;
+    private boolean settleFluids;
+    private SettledFluids settledFluids;
+
+    private BlockCarveWriter() { }
+
+    static BlockCarveWriter begin(
+            CarvingContext context,
+            CarverConfiguration config,
+            ChunkAccess chunk,
+            Function<BlockPos, Holder<Biome>> biomeAccessor,
+            Aquifer aquifer,
+            CarvingMask mask,
+            boolean settleFluids
+    ) {
+        BlockCarveWriter writer = WRITERS.get();
+        writer.context = context;
+        writer.config = config;
+        writer.chunk = chunk;
+        writer.biomeAccessor = biomeAccessor;
+        writer.aquifer = aquifer;
+        writer.mask = mask;
+        writer.lavaLevel = config.lavaLevel.resolveY(context);
+        writer.minBlockX = chunk.getPos().getMinBlockX();
+        writer.minBlockZ = chunk.getPos().getMinBlockZ();
+        writer.lastState = null;
+        writer.settleFluids = settleFluids;
+        writer.settledFluids = null;
+        Arrays.fill(writer.reachedSurface, 0L);
+        return writer;
+    }
+
+    void end() {
+        context = null;
+        config = null;
+        chunk = null;
+        biomeAccessor = null;
+        aquifer = null;
+        mask = null;
+        lastState = null;
+        settledFluids = null;
+    }
+
+    /**
+     * Forgets whether the column at chunk-local {@code x}, {@code z} has reached the surface, like the fresh
+     * {@code MutableBoolean} vanilla allocates per column of every ellipsoid.
+     */
+    void beginColumn(int x, int z) {
+        int column = x | z << 4;
+        reachedSurface[column >>> 6] &= ~(1L << column);
+    }
+
+    /**
+     * Carves the inclusive run {@code fromX..toX} (chunk-local) at world height {@code y} and chunk-local
+     * {@code z}. {@code section} must be the chunk section containing {@code y}.
+     *
+     * @return the number of blocks replaced
+     */
+    int carveSpan(LevelChunkSection section, int y, int z, int fromX, int toX) {
+        int carved = 0;
+        for (int x = fromX; x <= toX; x++) {
+            if (mask.get(x, y, z)) {
+                continue;
+            }
+            mask.set(x, y, z);
+            if (carveBlock(section, x, y, z)) {
+                carved++;
+            }
+        }
+        return carved;
+    }
+
+    /**
+     * Carves a single chunk-local position. Callers are responsible for the carving-mask check.
+     */
+    boolean carveBlock(LevelChunkSection section, int x, int y, int z) {
+        BlockState state = section.getBlockState(x, y & 15, z);
+        int column = x | z << 4;
+        long columnBit = 1L << column;
+        if (state.is(Blocks.GRASS_BLOCK) || state.is(Blocks.MYCELIUM)) {
+            reachedSurface[column >>> 6] |= columnBit;
+        }
+        if (!canReplace(state)) {
+            return false;
+        }
+
+        BlockState carveState = carveState(x, y, z);
+        if (carveState == null) {
+            return false;
+        }
+
+        pos.set(minBlockX + x, y, minBlockZ + z);
+        chunk.setBlockState(pos, carveState, false);
+        boolean fluid = !carveState.getFluidState().isEmpty();
+        if (fluid && aquifer.shouldScheduleFluidUpdate()) {
+            chunk.markPosForPostprocessing(pos);
+            if (settleFluids) {
+                recordFluid(x, y, z);
+            }
+        }
+
+        if ((reachedSurface[column >>> 6] & columnBit) != 0L) {
+            below.setWithOffset(pos, 0, -1, 0);
+            if (chunk.getBlockState(below).is(Blocks.DIRT)) {
+                Optional<BlockState> top = context.topMaterial(biomeAccessor, chunk, below, fluid);
+                if (top.isPresent()) {
+                    BlockState topState = top.get();
+                    chunk.setBlockState(below, topState, false);
+                    if (!topState.getFluidState().isEmpty()) {
+                        chunk.markPosForPostprocessing(below);
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private void recordFluid(int x, int y, int z) {
+        if (settledFluids == null) {
+            settledFluids = SettledFluids.forChunk(chunk);
+            if (settledFluids == null) {
+                settleFluids = false;
+                return;
+            }
+        }
+        settledFluids.record(x, y, z, chunk.getSectionIndex(y));
+    }
+
+    private boolean canReplace(BlockState state) {
+        if (state != lastState) {
+            lastState = state;
+            lastReplaceable = config.replaceable.contains(state.getBlockHolder());
+        }
+        return lastReplaceable;
+    }
+
+    private BlockState carveState(int x, int y, int z) {
+        if (y <= lavaLevel) {
+            return LAVA;
+        }
+        point.set(minBlockX + x, y, minBlockZ + z);
+        return aquifer.computeSubstance(point, 0.0D);
+    }
+
+    private static final class MutableFunctionContext implements DensityFunction.FunctionContext {
+        private int x;
+        private int y;
+        private int z;
+
+        void set(int x, int y, int z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        @Override
+        public int blockX() {
+            return x;
+        }
+
+        @Override
+        public int blockY() {
+            return y;
+        }
+
+        @Override
+        public int blockZ() {
+            return z;
+        }
+    }
+}
@@ -1,40 +1,54 @@
 package com.theexpanse.worldgen.carver;
 
 import com.mojang.serialization.Codec;
+import com.theexpanse.worldgen.SectionOccupancy;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Holder;
+import net.minecraft.core.SectionPos;
+import net.minecraft.util.Mth;
 import net.minecraft.util.RandomSource;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.chunk.CarvingMask;
 import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunkSection;
 import net.minecraft.world.level.levelgen.Aquifer;
-import net.minecraft.world.level.levelgen.carver.CarverConfiguration;
 import net.minecraft.world.level.levelgen.carver.CarvingContext;
+import net.minecraft.world.level.levelgen.carver.CaveCarverConfiguration;
 import net.minecraft.world.level.levelgen.carver.WorldCarver;
 
 import java.util.function.Function;
 
 /**
  * Blue Hole vertical carver (NeoForge 1.21.1 compatible).
+ *
+ * <p>Carves a round sinkhole whose floor sits at the configured {@code y}. The hole is sized from the cave
+ * configuration: {@code horizontal_radius_multiplier} scales the radius, {@code yScale} and
+ * {@code vertical_radius_multiplier} scale the depth, and a negative {@code floor_level} sets how far down the
+ * straight walls run before the bowl-shaped floor starts (-0.6 means 60% of the depth).
+ *
+ * <p>The shape comes from a cached {@link BlueHoleStencil}; each chunk only clips the stencil's runs to its
+ * bounds and visits the sections the hole actually crosses. Blocks are written in settled-fluid mode, so the
+ * flooded shaft does not schedule a fluid tick per block.
  */
-public class BlueHoleCarver extends WorldCarver<CarverConfiguration> {
+public class BlueHoleCarver extends WorldCarver<CaveCarverConfiguration> {
+    private static final float BASE_RADIUS = 10.0F;
+    private static final float RADIUS_SPREAD = 8.0F;
+    private static final float BASE_DEPTH = 48.0F;
 
-    public BlueHoleCarver(Codec<CarverConfiguration> codec) {
+    public BlueHoleCarver(Codec<CaveCarverConfiguration> codec) {
         super(codec);
     }
 
     @Override
-    public boolean isStartChunk(CarverConfiguration config, RandomSource random) {
-        // Controls how often this carver starts.
-        // Returning true means it can start anywhere (for now).
-        return random.nextFloat() < 0.01F; // 1% chance per chunk
+    public boolean isStartChunk(CaveCarverConfiguration config, RandomSource random) {
+        return random.nextFloat() <= config.probability;
     }
 
     @Override
     public boolean carve(
             CarvingContext context,
-            CarverConfiguration config,
+            CaveCarverConfiguration config,
             ChunkAccess chunk,
             Function<BlockPos, Holder<Biome>> biomeFunc,
             RandomSource random,
@@ -42,7 +56,77 @@ public class BlueHoleCarver extends WorldCarver<CarverConfiguration> {
             ChunkPos chunkPos,
             CarvingMask mask
     ) {
-        // Example placeholder: No carving yet
-        return false;
+        // Every chunk in range sees the same hole for a given start chunk; plan it once and share it.
+        long seed = random.nextLong();
+        Plan plan = CarverPlanCache.shared().get(config, chunkPos, seed, context,
+                () -> plan(context, config, chunkPos, RandomSource.create(seed)));
+        int centerX = plan.centerX();
+        int centerZ = plan.centerZ();
+        int floorY = plan.floorY();
+        BlueHoleStencil stencil = plan.stencil();
+
+        ChunkPos target = chunk.getPos();
+        int minX = target.getMinBlockX();
+        int minZ = target.getMinBlockZ();
+        int reach = stencil.reach();
+        int fromX = Math.max(centerX - reach, minX);
+        int toX = Math.min(centerX + reach, minX + 15);
+        int fromZ = Math.max(centerZ - reach, minZ);
+        int toZ = Math.min(centerZ + reach, minZ + 15);
+        if (fromX > toX || fromZ > toZ) {
+            return false;
+        }
+
+        int topY = floorY + stencil.depth();
+        int lowestY = Math.max(floorY, context.getMinGenY() + 1);
+        int highestY = Math.min(topY,
+                context.getMinGenY() + context.getGenDepth() - 1 - (chunk.isUpgrading() ? 0 : 7));
+
+        boolean carved = false;
+        BlockCarveWriter writer = BlockCarveWriter.begin(context, config, chunk, biomeFunc, aquifer, mask, true);
+        try {
+            // Start at the highest section holding blocks; above it there is nothing replaceable.
+            for (int y = Math.min(highestY, SectionOccupancy.occupiedCeiling(chunk)); y >= lowestY; y--) {
+                LevelChunkSection section = chunk.getSection(chunk.getSectionIndex(y));
+                if (section.hasOnlyAir()) {
+                    // Jump to the top of the next occupied section below.
+                    int below = SectionOccupancy.occupiedSectionAtOrBelow(chunk, chunk.getSectionIndex(y) - 1);
+                    if (below == SectionOccupancy.NONE) {
+                        break;
+                    }
+                    y = SectionPos.sectionToBlockCoord(chunk.getSectionYFromSectionIndex(below)) + 16;
+                    continue;
+                }
+
+                int row = topY - y;
+                for (int z = fromZ; z <= toZ; z++) {
+                    int halfWidth = stencil.halfWidth(row, z - centerZ);
+                    if (halfWidth == BlueHoleStencil.NO_SPAN) {
+                        continue;
+                    }
+                    int runFrom = Math.max(centerX - halfWidth, fromX);
+                    int runTo = Math.min(centerX + halfWidth, toX);
+                    if (runFrom <= runTo) {
+                        carved |= writer.carveSpan(section, y, z - minZ, runFrom - minX, runTo - minX) > 0;
+                    }
+                }
+            }
+        } finally {
+            writer.end();
+        }
+        return carved;
     }
+
+    private static Plan plan(CarvingContext context, CaveCarverConfiguration config, ChunkPos start, RandomSource random) {
+        int centerX = start.getBlockX(random.nextInt(16));
+        int centerZ = start.getBlockZ(random.nextInt(16));
+        int floorY = config.y.sample(random, context);
+        float radius = (BASE_RADIUS + random.nextFloat() * RADIUS_SPREAD)
+                * config.horizontalRadiusMultiplier.sample(random);
+        int depth = Mth.ceil(BASE_DEPTH * config.yScale.sample(random) * config.verticalRadiusMultiplier.sample(random));
+        float bowlStart = Mth.clamp(-config.floorLevel.sample(random), 0.0F, 1.0F);
+        return new Plan(centerX, centerZ, floorY, BlueHoleStencil.of(radius, depth, bowlStart));
+    }
+
+    private record Plan(int centerX, int centerZ, int floorY, BlueHoleStencil stencil) { }
 }
@@ -0,0 +1,96 @@
+package com.theexpanse.worldgen.carver;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed cross-sections of a blue hole.
+ *
+ * <p>For every depth row and every z offset from the hole axis the stencil stores the half-width of the
+ * carved x run, so carving a chunk is a matter of clipping runs to the chunk instead of testing distances per
+ * block. The profile is a vertical cylinder for the first {@code bowlStart} of its depth, closed by an
+ * elliptical bowl below that.
+ *
+ * <p>Stencils are cached by quantised parameters (radius in quarter blocks, depth in blocks, bowl start in
+ * sixteenths), which keeps the set small for the float providers datapacks usually use.
+ */
+final class BlueHoleStencil {
+    static final int NO_SPAN = -1;
+    static final int MAX_RADIUS = 48;
+    static final int MAX_DEPTH = 512;
+
+    private static final int MAX_CACHED = 256;
+    private static final Map<Long, BlueHoleStencil> CACHE = new ConcurrentHashMap<>();
+
+    private final int reach;
+    private final int depth;
+    private final int width;
+    private final short[] halfWidths;
+
+    private BlueHoleStencil(float radius, int depth, float bowlStart) {
+        this.reach = (int) Math.ceil(radius);
+        this.depth = depth;
+        this.width = reach * 2 + 1;
+        this.halfWidths = new short[(depth + 1) * width];
+
+        for (int row = 0; row <= depth; row++) {
+            double rowRadius = rowRadius(radius, (double) row / depth, bowlStart);
+            double radiusSq = rowRadius * rowRadius;
+            for (int dz = -reach; dz <= reach; dz++) {
+                double remaining = radiusSq - (double) dz * dz;
+                int halfWidth = remaining < 0.0D ? NO_SPAN : (int) Math.floor(Math.sqrt(remaining));
+                halfWidths[row * width + dz + reach] = (short) halfWidth;
+            }
+        }
+    }
+
+    static BlueHoleStencil of(float radius, int depth, float bowlStart) {
+        int radiusQuarters = clamp(Math.round(radius * 4.0F), 4, MAX_RADIUS * 4);
+        int clampedDepth = clamp(depth, 1, MAX_DEPTH);
+        int bowlSixteenths = clamp(Math.round(bowlStart * 16.0F), 0, 15);
+        long key = (long) radiusQuarters << 32 | (long) clampedDepth << 8 | bowlSixteenths;
+
+        BlueHoleStencil stencil = CACHE.get(key);
+        if (stencil == null) {
+            if (CACHE.size() >= MAX_CACHED) {
+                CACHE.clear();
+            }
+            stencil = CACHE.computeIfAbsent(key,
+                ignored -> new BlueHoleStencil(radiusQuarters / 4.0F, clampedDepth, bowlSixteenths / 16.0F));
+        }
+        return stencil;
+    }
+
+    /** Horizontal extent of the stencil in blocks from the axis. */
+    int reach() {
+        return reach;
+    }
+
+    /** Number of rows below the top row; row {@code depth()} is the floor. */
+    int depth() {
+        return depth;
+    }
+
+    /**
+     * Half-width of the x run at {@code row} (0 at the top) and z offset {@code dz} from the axis, or
+     * {@link #NO_SPAN} when that row does not reach {@code dz}.
+     */
+    int halfWidth(int row, int dz) {
+        if (row < 0 || row > depth || dz < -reach || dz > reach) {
+            return NO_SPAN;
+        }
+        return halfWidths[row * width + dz + reach];
+    }
+
+    private static double rowRadius(float radius, double depthFraction, float bowlStart) {
+        if (depthFraction <= bowlStart) {
+            return radius;
+        }
+        double bowl = (depthFraction - bowlStart) / (1.0D - bowlStart);
+        return radius * Math.sqrt(Math.max(0.0D, 1.0D - bowl * bowl));
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,167 @@
+package com.theexpanse.worldgen.carver;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.util.Mth;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.chunk.CarvingMask;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.levelgen.Aquifer;
+import net.minecraft.world.level.levelgen.carver.CanyonCarverConfiguration;
+import net.minecraft.world.level.levelgen.carver.CarvingContext;
+
+import java.util.function.Function;
+
+/**
+ * Canyon carving shared by {@link MassiveRavineCarver} and {@link MegaOceanRavineCarver}.
+ *
+ * <p>Consumes randomness exactly like {@code CanyonWorldCarver} and carves the same blocks in the same order,
+ * so output is identical for a given seed. The differences:
+ * <ul>
+ *     <li>each ellipsoid column gets its Y span in closed form from the widest possible cross-section
+ *     (width factors are never below 1), and only rows inside it run the per-row width-factor test;</li>
+ *     <li>blocks go through the allocation-free {@link BlockCarveWriter} instead of per-ellipsoid
+ *     {@code MutableBlockPos}/{@code MutableBoolean} instances and per-block tag lookups;</li>
+ *     <li>the tunnel spine and its width-factor table (one float per block of generation depth, 2288 here) are
+ *     planned once per start chunk as a {@link CanyonPlan} and shared through {@link CarverPlanCache}.</li>
+ * </ul>
+ */
+final class CanyonCarveEngine {
+    private CanyonCarveEngine() { }
+
+    static boolean carve(
+            CarvingContext context,
+            CanyonCarverConfiguration config,
+            ChunkAccess chunk,
+            Function<BlockPos, Holder<Biome>> biomeAccessor,
+            RandomSource random,
+            Aquifer aquifer,
+            ChunkPos chunkPos,
+            CarvingMask mask,
+            int range,
+            boolean settleFluids
+    ) {
+        int maxDistance = (range * 2 - 1) * 16;
+        double x = chunkPos.getBlockX(random.nextInt(16));
+        int y = config.y.sample(random, context);
+        double z = chunkPos.getBlockZ(random.nextInt(16));
+        float yaw = random.nextFloat() * (float) (Math.PI * 2);
+        float pitch = config.verticalRotation.sample(random);
+        double yScale = config.yScale.sample(random);
+        float thickness = config.shape.thickness.sample(random);
+        int branchCount = (int) ((float) maxDistance * config.shape.distanceFactor.sample(random));
+
+        long seed = random.nextLong();
+        int genDepth = context.getGenDepth();
+        CanyonPlan plan = CarverPlanCache.shared().get(config, chunkPos, seed, context,
+                () -> CanyonPlan.build(config, genDepth, seed, x, y, z, thickness, yaw, pitch, branchCount, yScale));
+
+        BlockCarveWriter writer = BlockCarveWriter.begin(context, config, chunk, biomeAccessor, aquifer, mask,
+                settleFluids);
+        try {
+            rasterise(context, chunk, writer, mask, plan);
+        } finally {
+            writer.end();
+        }
+        return true;
+    }
+
+    private static void rasterise(
+            CarvingContext context,
+            ChunkAccess chunk,
+            BlockCarveWriter writer,
+            CarvingMask mask,
+            CanyonPlan plan
+    ) {
+        ChunkPos chunkPos = chunk.getPos();
+        for (int i = 0; i < plan.size(); i++) {
+            if (!canReach(chunkPos, plan.x(i), plan.z(i), plan.branch(i), plan.branchCount, plan.thickness)) {
+                return;
+            }
+            carveEllipsoid(context, chunk, writer, mask, plan.widthFactors,
+                    plan.x(i), plan.y(i), plan.z(i), plan.horizontalRadius(i), plan.verticalRadius(i));
+        }
+    }
+
+    private static void carveEllipsoid(
+            CarvingContext context,
+            ChunkAccess chunk,
+            BlockCarveWriter writer,
+            CarvingMask mask,
+            float[] widthFactors,
+            double x,
+            double y,
+            double z,
+            double horizontalRadius,
+            double verticalRadius
+    ) {
+        ChunkPos chunkPos = chunk.getPos();
+        double reach = 16.0D + horizontalRadius * 2.0D;
+        if (Math.abs(x - chunkPos.getMiddleBlockX()) > reach || Math.abs(z - chunkPos.getMiddleBlockZ()) > reach) {
+            return;
+        }
+
+        int minBlockX = chunkPos.getMinBlockX();
+        int minBlockZ = chunkPos.getMinBlockZ();
+        int minGenY = context.getMinGenY();
+        int fromX = Math.max(Mth.floor(x - horizontalRadius) - minBlockX - 1, 0);
+        int toX = Math.min(Mth.floor(x + horizontalRadius) - minBlockX, 15);
+        int fromZ = Math.max(Mth.floor(z - horizontalRadius) - minBlockZ - 1, 0);
+        int toZ = Math.min(Mth.floor(z + horizontalRadius) - minBlockZ, 15);
+        // Vanilla bounds: rows (floorY, ceilY], top to bottom.
+        int floorY = Math.max(Mth.floor(y - verticalRadius) - 1, minGenY + 1);
+        int ceilY = Math.min(Mth.floor(y + verticalRadius) + 1,
+                minGenY + context.getGenDepth() - 1 - (chunk.isUpgrading() ? 0 : 7));
+
+        for (int localX = fromX; localX <= toX; localX++) {
+            double dx = ((double) (minBlockX + localX) + 0.5D - x) / horizontalRadius;
+            for (int localZ = fromZ; localZ <= toZ; localZ++) {
+                double dz = ((double) (minBlockZ + localZ) + 0.5D - z) / horizontalRadius;
+                double horizontalSq = dx * dx + dz * dz;
+                if (horizontalSq >= 1.0D) {
+                    continue;
+                }
+
+                // Width factors are >= 1, so every carved row satisfies horizontalSq + dy^2 / 6 < 1.
+                double halfSpan = verticalRadius * Math.sqrt(6.0D * (1.0D - horizontalSq));
+                int top = Math.min(ceilY, Mth.floor(y + 0.5D + halfSpan) + 1);
+                int bottom = Math.max(floorY, Mth.floor(y + 0.5D - halfSpan) - 1);
+                if (top <= bottom) {
+                    continue;
+                }
+
+                writer.beginColumn(localX, localZ);
+                int sectionIndex = -1;
+                LevelChunkSection section = null;
+                for (int blockY = top; blockY > bottom; blockY--) {
+                    double dy = ((double) blockY - 0.5D - y) / verticalRadius;
+                    if (horizontalSq * (double) widthFactors[blockY - minGenY - 1] + dy * dy / 6.0D >= 1.0D) {
+                        continue;
+                    }
+                    if (mask.get(localX, blockY, localZ)) {
+                        continue;
+                    }
+                    mask.set(localX, blockY, localZ);
+
+                    int index = chunk.getSectionIndex(blockY);
+                    if (index != sectionIndex) {
+                        sectionIndex = index;
+                        section = chunk.getSection(index);
+                    }
+                    writer.carveBlock(section, localX, blockY, localZ);
+                }
+            }
+        }
+    }
+
+    private static boolean canReach(ChunkPos chunkPos, double x, double z, int branch, int branchCount, float thickness) {
+        double dx = x - (double) chunkPos.getMiddleBlockX();
+        double dz = z - (double) chunkPos.getMiddleBlockZ();
+        double remaining = branchCount - branch;
+        double reach = thickness + 2.0F + 16.0F;
+        return dx * dx + dz * dz - remaining * remaining <= reach * reach;
+    }
+}
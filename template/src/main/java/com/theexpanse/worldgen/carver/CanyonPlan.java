@@ -0,0 +1,146 @@
+package com.theexpanse.worldgen.carver;
+
+import net.minecraft.util.Mth;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.levelgen.carver.CanyonCarverConfiguration;
+
+import java.util.Arrays;
+
+/**
+ * Chunk-independent part of a canyon: its width-factor table and every ellipsoid along its spine, in carving
+ * order. Built once per start chunk and shared through {@link CarverPlanCache}; chunks only rasterise the
+ * ellipsoids that reach them.
+ *
+ * <p>Vanilla stops walking the spine at the first ellipsoid that can no longer reach the chunk being carved.
+ * That check depends on the chunk, so the plan keeps the whole spine and {@link CanyonCarveEngine} applies the
+ * same early exit while rasterising.
+ */
+final class CanyonPlan {
+    final float thickness;
+    final int branchCount;
+    final float[] widthFactors;
+
+    private int size;
+    private int[] branches;
+    private double[] coordinates;
+
+    private CanyonPlan(float thickness, int branchCount, float[] widthFactors) {
+        this.thickness = thickness;
+        this.branchCount = branchCount;
+        this.widthFactors = widthFactors;
+        int expected = Math.max(4, branchCount);
+        this.branches = new int[expected];
+        this.coordinates = new double[expected * 5];
+    }
+
+    static CanyonPlan build(
+            CanyonCarverConfiguration config,
+            int genDepth,
+            long seed,
+            double x,
+            double y,
+            double z,
+            float thickness,
+            float yaw,
+            float pitch,
+            int branchCount,
+            double horizontalVerticalRatio
+    ) {
+        RandomSource random = RandomSource.create(seed);
+        CanyonPlan plan = new CanyonPlan(thickness, branchCount, widthFactors(config, genDepth, random));
+        float yawDelta = 0.0F;
+        float pitchDelta = 0.0F;
+
+        for (int branch = 0; branch < branchCount; branch++) {
+            double horizontalRadius = 1.5D + (double) (Mth.sin((float) branch * (float) Math.PI / (float) branchCount) * thickness);
+            double verticalRadius = horizontalRadius * horizontalVerticalRatio;
+            horizontalRadius *= config.shape.horizontalRadiusFactor.sample(random);
+            verticalRadius = updateVerticalRadius(config, random, verticalRadius, branchCount, branch);
+
+            float pitchCos = Mth.cos(pitch);
+            float pitchSin = Mth.sin(pitch);
+            x += Mth.cos(yaw) * pitchCos;
+            y += pitchSin;
+            z += Mth.sin(yaw) * pitchCos;
+            pitch *= 0.7F;
+            pitch += pitchDelta * 0.05F;
+            yaw += yawDelta * 0.05F;
+            pitchDelta *= 0.8F;
+            yawDelta *= 0.5F;
+            pitchDelta += (random.nextFloat() - random.nextFloat()) * random.nextFloat() * 2.0F;
+            yawDelta += (random.nextFloat() - random.nextFloat()) * random.nextFloat() * 4.0F;
+
+            if (random.nextInt(4) != 0) {
+                plan.add(branch, x, y, z, horizontalRadius, verticalRadius);
+            }
+        }
+        return plan;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int branch(int index) {
+        return branches[index];
+    }
+
+    double x(int index) {
+        return coordinates[index * 5];
+    }
+
+    double y(int index) {
+        return coordinates[index * 5 + 1];
+    }
+
+    double z(int index) {
+        return coordinates[index * 5 + 2];
+    }
+
+    double horizontalRadius(int index) {
+        return coordinates[index * 5 + 3];
+    }
+
+    double verticalRadius(int index) {
+        return coordinates[index * 5 + 4];
+    }
+
+    private void add(int branch, double x, double y, double z, double horizontalRadius, double verticalRadius) {
+        if (size == branches.length) {
+            branches = Arrays.copyOf(branches, size * 2);
+            coordinates = Arrays.copyOf(coordinates, size * 10);
+        }
+        branches[size] = branch;
+        int offset = size * 5;
+        coordinates[offset] = x;
+        coordinates[offset + 1] = y;
+        coordinates[offset + 2] = z;
+        coordinates[offset + 3] = horizontalRadius;
+        coordinates[offset + 4] = verticalRadius;
+        size++;
+    }
+
+    private static float[] widthFactors(CanyonCarverConfiguration config, int genDepth, RandomSource random) {
+        float[] factors = new float[genDepth];
+        float factor = 1.0F;
+        for (int i = 0; i < genDepth; i++) {
+            if (i == 0 || random.nextInt(config.shape.widthSmoothness) == 0) {
+                factor = 1.0F + random.nextFloat() * random.nextFloat();
+            }
+            factors[i] = factor * factor;
+        }
+        return factors;
+    }
+
+    private static double updateVerticalRadius(
+            CanyonCarverConfiguration config,
+            RandomSource random,
+            double verticalRadius,
+            float branchCount,
+            float branch
+    ) {
+        float centerWeight = 1.0F - Mth.abs(0.5F - branch / branchCount) * 2.0F;
+        float factor = config.shape.verticalRadiusDefaultFactor + config.shape.verticalRadiusCenterFactor * centerWeight;
+        return (double) factor * verticalRadius * (double) Mth.randomBetween(random, 0.75F, 1.0F);
+    }
+}
@@ -0,0 +1,152 @@
+package com.theexpanse.worldgen.carver;
+
+import com.mojang.logging.LogUtils;
+import com.theexpanse.ExpanseConfig;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.levelgen.WorldGenerationContext;
+import net.minecraft.world.level.levelgen.carver.CarverConfiguration;
+import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.server.ServerStoppingEvent;
+import org.slf4j.Logger;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU of carver plans shared by all worldgen threads.
+ *
+ * <p>A ravine or blue hole is carved by every chunk in its start chunk's carver range, and each of those calls
+ * would otherwise rebuild the whole plan (ravine spine, width factors, hole parameters) only to rasterise its
+ * own 16x16 slice. Plans are keyed by configured carver, start chunk, the per-start seed drawn from the carver
+ * random, and the generation height, so a hit always yields the plan a miss would have computed.
+ *
+ * <p>The map is split into lock-striped shards; plans are computed outside the lock, so two threads missing on
+ * the same key at once both compute it and the second insert wins. Capacity follows
+ * {@link ExpanseConfig#carverPlanCacheSize()}.
+ */
+public final class CarverPlanCache {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final int SHARDS = 16;
+    private static final CarverPlanCache SHARED = new CarverPlanCache();
+
+    private final Shard[] shards = new Shard[SHARDS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private CarverPlanCache() {
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    public static void register() {
+        NeoForge.EVENT_BUS.addListener(CarverPlanCache::onServerStopping);
+    }
+
+    static CarverPlanCache shared() {
+        return SHARED;
+    }
+
+    /** Current counters of the shared cache. */
+    public static Stats stats() {
+        return SHARED.snapshot();
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(CarverConfiguration config, ChunkPos start, long seed, WorldGenerationContext context, Supplier<T> planner) {
+        Key key = new Key(config, start.toLong(), seed, context.getMinGenY(), context.getGenDepth());
+        Shard shard = shards[Math.floorMod(key.hashCode(), SHARDS)];
+
+        Object plan;
+        synchronized (shard) {
+            plan = shard.get(key);
+        }
+        if (plan != null) {
+            hits.increment();
+            return (T) plan;
+        }
+
+        misses.increment();
+        T computed = planner.get();
+        synchronized (shard) {
+            shard.put(key, computed);
+        }
+        return computed;
+    }
+
+    void clear() {
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                shard.clear();
+            }
+        }
+    }
+
+    private Stats snapshot() {
+        int size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.size();
+            }
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size, ExpanseConfig.carverPlanCacheSize());
+    }
+
+    private static void onServerStopping(ServerStoppingEvent event) {
+        Stats stats = stats();
+        if (stats.hits() + stats.misses() > 0) {
+            LOGGER.info("Carver plan cache: {} hits, {} misses ({}% hit rate), {} evictions, {}/{} plans",
+                    stats.hits(), stats.misses(), Math.round(stats.hitRate() * 100.0D), stats.evictions(),
+                    stats.size(), stats.capacity());
+        }
+        SHARED.clear();
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size, int capacity) {
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0D : (double) hits / lookups;
+        }
+    }
+
+    private record Key(CarverConfiguration config, long start, long seed, int minY, int height) {
+        // Configurations are compared by identity; each configured carver owns its configuration instance.
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key
+                    && config == key.config
+                    && start == key.start
+                    && seed == key.seed
+                    && minY == key.minY
+                    && height == key.height;
+        }
+
+        @Override
+        public int hashCode() {
+            long hash = seed * 31L + start;
+            hash = hash * 31L + System.identityHashCode(config);
+            hash = hash * 31L + minY;
+            hash = hash * 31L + height;
+            return Long.hashCode(hash ^ hash >>> 29);
+        }
+    }
+
+    private final class Shard extends LinkedHashMap<Key, Object> {
+        Shard() {
+            super(64, 0.75F, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+            int capacity = Math.max(1, ExpanseConfig.carverPlanCacheSize() / SHARDS);
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -4,7 +4,7 @@ import com.theexpanse.TheExpanse;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.world.level.levelgen.carver.CanyonCarverConfiguration;
-import net.minecraft.world.level.levelgen.carver.CarverConfiguration;
+import net.minecraft.world.level.levelgen.carver.CaveCarverConfiguration;
 import net.minecraft.world.level.levelgen.carver.ConfiguredWorldCarver;
 import net.minecraft.world.level.levelgen.carver.WorldCarver;
 import net.neoforged.bus.api.IEventBus;
@@ -26,9 +26,9 @@ public final class CarverRegistry {
             CARVERS.register("massive_ravine", MassiveRavineCarver::new);
 
     // === Custom “Blue Hole” vertical carver ===
-    // Uses generic CarverConfiguration
-    public static final DeferredHolder<WorldCarver<?>, WorldCarver<CarverConfiguration>> BLUE_HOLE =
-            CARVERS.register("blue_hole", () -> new BlueHoleCarver(CarverConfiguration.CODEC.codec()));
+    // Uses CaveCarverConfiguration for its radius, depth and floor multipliers
+    public static final DeferredHolder<WorldCarver<?>, WorldCarver<CaveCarverConfiguration>> BLUE_HOLE =
+            CARVERS.register("blue_hole", () -> new BlueHoleCarver(CaveCarverConfiguration.CODEC));
 
     // === Registration hook ===
     public static void register(IEventBus modBus) {
@@ -1,10 +1,40 @@
 package com.theexpanse.worldgen.carver;
 
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.chunk.CarvingMask;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.levelgen.Aquifer;
 import net.minecraft.world.level.levelgen.carver.CanyonCarverConfiguration;
 import net.minecraft.world.level.levelgen.carver.CanyonWorldCarver;
+import net.minecraft.world.level.levelgen.carver.CarvingContext;
+
+import java.util.function.Function;
 
 public class MassiveRavineCarver extends CanyonWorldCarver {
     public MassiveRavineCarver() {
         super(CanyonCarverConfiguration.CODEC);
     }
+
+    @Override
+    public boolean carve(
+            CarvingContext context,
+            CanyonCarverConfiguration config,
+            ChunkAccess chunk,
+            Function<BlockPos, Holder<Biome>> biomeAccessor,
+            RandomSource random,
+            Aquifer aquifer,
+            ChunkPos chunkPos,
+            CarvingMask carvingMask
+    ) {
+        // Debug visualisation is only implemented by the vanilla path.
+        if (isDebugEnabled(config)) {
+            return super.carve(context, config, chunk, biomeAccessor, random, aquifer, chunkPos, carvingMask);
+        }
+        return CanyonCarveEngine.carve(context, config, chunk, biomeAccessor, random, aquifer, chunkPos, carvingMask,
+                getRange(), false);
+    }
 }
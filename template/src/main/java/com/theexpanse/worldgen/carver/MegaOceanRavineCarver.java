@@ -1,10 +1,41 @@
 package com.theexpanse.worldgen.carver;
 
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.chunk.CarvingMask;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.levelgen.Aquifer;
 import net.minecraft.world.level.levelgen.carver.CanyonCarverConfiguration;
 import net.minecraft.world.level.levelgen.carver.CanyonWorldCarver;
+import net.minecraft.world.level.levelgen.carver.CarvingContext;
+
+import java.util.function.Function;
 
 public class MegaOceanRavineCarver extends CanyonWorldCarver {
     public MegaOceanRavineCarver() {
         super(CanyonCarverConfiguration.CODEC);
     }
+
+    @Override
+    public boolean carve(
+            CarvingContext context,
+            CanyonCarverConfiguration config,
+            ChunkAccess chunk,
+            Function<BlockPos, Holder<Biome>> biomeAccessor,
+            RandomSource random,
+            Aquifer aquifer,
+            ChunkPos chunkPos,
+            CarvingMask carvingMask
+    ) {
+        // Debug visualisation is only implemented by the vanilla path.
+        if (isDebugEnabled(config)) {
+            return super.carve(context, config, chunk, biomeAccessor, random, aquifer, chunkPos, carvingMask);
+        }
+        // Ocean ravines flood on carve, so their fluids are settled rather than ticked per block.
+        return CanyonCarveEngine.carve(context, config, chunk, biomeAccessor, random, aquifer, chunkPos, carvingMask,
+                getRange(), true);
+    }
 }
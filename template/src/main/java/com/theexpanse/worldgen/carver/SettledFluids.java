@@ -0,0 +1,145 @@
+package com.theexpanse.worldgen.carver;
+
+import com.theexpanse.ExpanseConfig;
+import it.unimi.dsi.fastutil.shorts.ShortList;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.material.Fluid;
+import net.minecraft.world.level.material.FluidState;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Settled-fluid pass over one chunk's carvers.
+ *
+ * <p>Vanilla marks every fluid a carver places for post-processing, so a flooded blue hole or ocean ravine
+ * schedules a fluid tick per block on first load. Writers of The Expanse carvers that ask for settled fluids still
+ * mark every fluid like vanilla, but also record it here; {@link #settle}, called once every carver of the chunk
+ * has run, drops the marks of recorded fluids that can neither flow nor react. Deciding after all carvers matters:
+ * a later carver (another start chunk, another carver, or a vanilla cave) may open air next to a fluid that looked
+ * enclosed.
+ *
+ * <p>A chunk that is never settled, for instance under a generator that does not call {@link #settle} or after a
+ * reload between carving and decoration, keeps vanilla's marks.
+ */
+public final class SettledFluids {
+    private static final Map<ChunkAccess, SettledFluids> PENDING = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private int[] carved = new int[256];
+    private int carvedCount;
+
+    private SettledFluids() { }
+
+    /** The record of fluids carved into {@code chunk}, or {@code null} without {@code settleCarvedFluids}. */
+    static SettledFluids forChunk(ChunkAccess chunk) {
+        if (!ExpanseConfig.settleCarvedFluids()) {
+            return null;
+        }
+        return PENDING.computeIfAbsent(chunk, ignored -> new SettledFluids());
+    }
+
+    /** Records the marked fluid at chunk-local {@code x}, {@code z} and section index {@code sectionIndex}. */
+    synchronized void record(int x, int y, int z, int sectionIndex) {
+        if (carvedCount == carved.length) {
+            carved = Arrays.copyOf(carved, carvedCount * 2);
+        }
+        carved[carvedCount++] = x | (y & 15) << 4 | z << 8 | sectionIndex << 12;
+    }
+
+    /**
+     * Drops the post-processing marks of fluids carved into {@code chunk} that are already at rest. A fluid enclosed
+     * by solid blocks and the same fluid does not need a tick on first load. Neighbours in other chunks are unknown
+     * and count as boundary. Does nothing for a chunk without recorded fluids.
+     */
+    public static void settle(ChunkAccess chunk) {
+        SettledFluids record = PENDING.remove(chunk);
+        if (record != null) {
+            record.settle(chunk);
+        }
+    }
+
+    private synchronized void settle(ChunkAccess chunk) {
+        int minY = SectionPos.sectionToBlockCoord(chunk.getSectionYFromSectionIndex(0));
+        int maxY = minY + chunk.getHeight();
+        long[][] resting = new long[chunk.getSectionsCount()][];
+        boolean any = false;
+        for (int i = 0; i < carvedCount; i++) {
+            int packed = carved[i];
+            int x = packed & 15;
+            int z = packed >> 8 & 15;
+            int sectionIndex = packed >>> 12;
+            int sectionMinY = SectionPos.sectionToBlockCoord(chunk.getSectionYFromSectionIndex(sectionIndex));
+            int y = sectionMinY + (packed >> 4 & 15);
+            FluidState fluid = stateAt(chunk, x, y, z).getFluidState();
+            if (fluid.isEmpty() || isFluidBoundary(chunk, minY, maxY, x, y, z, fluid.getType())) {
+                continue;
+            }
+            if (resting[sectionIndex] == null) {
+                resting[sectionIndex] = new long[4096 / 64];
+            }
+            int offset = packed & 4095;
+            resting[sectionIndex][offset >>> 6] |= 1L << offset;
+            any = true;
+        }
+        carvedCount = 0;
+        if (any) {
+            unmark(chunk.getPostProcessing(), resting);
+        }
+    }
+
+    /** Removes the marks whose offsets are set in {@code resting}, keeping the order of the others. */
+    private static void unmark(ShortList[] marks, long[][] resting) {
+        for (int sectionIndex = 0; sectionIndex < resting.length; sectionIndex++) {
+            ShortList section = marks[sectionIndex];
+            long[] bits = resting[sectionIndex];
+            if (section == null || bits == null) {
+                continue;
+            }
+            int kept = 0;
+            for (int i = 0; i < section.size(); i++) {
+                short mark = section.getShort(i);
+                if ((bits[mark >>> 6 & 63] & 1L << mark) == 0L) {
+                    section.set(kept++, mark);
+                }
+            }
+            section.removeElements(kept, section.size());
+        }
+    }
+
+    private static boolean isFluidBoundary(ChunkAccess chunk, int minY, int maxY, int x, int y, int z, Fluid fluid) {
+        if (x == 0 || x == 15 || z == 0 || z == 15) {
+            return true;
+        }
+        return canFlowInto(chunk, minY, maxY, x - 1, y, z, fluid)
+                || canFlowInto(chunk, minY, maxY, x + 1, y, z, fluid)
+                || canFlowInto(chunk, minY, maxY, x, y, z - 1, fluid)
+                || canFlowInto(chunk, minY, maxY, x, y, z + 1, fluid)
+                || canFlowInto(chunk, minY, maxY, x, y - 1, z, fluid)
+                || touchesOtherFluid(chunk, minY, maxY, x, y + 1, z, fluid);
+    }
+
+    private static boolean canFlowInto(ChunkAccess chunk, int minY, int maxY, int x, int y, int z, Fluid fluid) {
+        if (y < minY || y >= maxY) {
+            return false;
+        }
+        BlockState neighbour = stateAt(chunk, x, y, z);
+        return neighbour.isAir() || touchesOtherFluid(neighbour, fluid);
+    }
+
+    private static boolean touchesOtherFluid(ChunkAccess chunk, int minY, int maxY, int x, int y, int z, Fluid fluid) {
+        return y >= minY && y < maxY && touchesOtherFluid(stateAt(chunk, x, y, z), fluid);
+    }
+
+    private static boolean touchesOtherFluid(BlockState neighbour, Fluid fluid) {
+        FluidState neighbourFluid = neighbour.getFluidState();
+        return !neighbourFluid.isEmpty() && !neighbourFluid.getType().isSame(fluid);
+    }
+
+    private static BlockState stateAt(ChunkAccess chunk, int x, int y, int z) {
+        return chunk.getSection(chunk.getSectionIndex(y)).getBlockState(x, y & 15, z);
+    }
+}
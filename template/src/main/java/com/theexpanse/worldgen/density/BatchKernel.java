@@ -0,0 +1,558 @@
+package com.theexpanse.worldgen.density;
+
+import net.minecraft.core.Holder;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.levelgen.DensityFunction;
+import net.minecraft.world.level.levelgen.DensityFunctions;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * Column-at-a-time evaluation of the arithmetic nodes of a wired density function tree.
+ *
+ * <p>Vanilla's {@code fillArray} walks arithmetic nodes one point at a time as soon as a {@code mul}, {@code min}
+ * or {@code max} has to short-circuit, and allocates a fresh array for every {@code add}. A kernel instead works
+ * on dense primitive arrays: each node fills {@code count} values for the column indices in {@code lanes}, and
+ * short-circuits narrow the lanes for the other argument rather than falling back to points. The inner loops are
+ * plain array loops that C2 vectorises. Scratch arrays come from a per-thread stack, so a fill allocates nothing
+ * once warm.
+ *
+ * <p>Every node reproduces vanilla's per-point result bit for bit, including where {@code mul} skips its second
+ * argument on zero and {@code min}/{@code max} skip it against the argument's bounds. Nodes that are not plain
+ * arithmetic (noises, caches, range choices) are left to vanilla: filled whole when every lane is live, point by
+ * point otherwise, exactly as vanilla's own short-circuits do.
+ */
+abstract class BatchKernel {
+    private static final ThreadLocal<Frame> FRAMES = ThreadLocal.withInitial(Frame::new);
+
+    static final Class<?> AP2 = findNested("Ap2");
+    static final MethodHandle AP2_TYPE = findAccessor(AP2, "type");
+    static final MethodHandle AP2_ARGUMENT1 = findAccessor(AP2, "argument1");
+    static final MethodHandle AP2_ARGUMENT2 = findAccessor(AP2, "argument2");
+    static final Class<?> MUL_OR_ADD = findNested("MulOrAdd");
+    static final MethodHandle MUL_OR_ADD_TYPE = findAccessor(MUL_OR_ADD, "specificType");
+    static final MethodHandle MUL_OR_ADD_INPUT = findAccessor(MUL_OR_ADD, "input");
+    static final MethodHandle MUL_OR_ADD_ARGUMENT = findAccessor(MUL_OR_ADD, "argument");
+    static final Class<?> MAPPED = findNested("Mapped");
+    static final MethodHandle MAPPED_TYPE = findAccessor(MAPPED, "type");
+    static final MethodHandle MAPPED_INPUT = findAccessor(MAPPED, "input");
+    static final Class<?> CLAMP = findNested("Clamp");
+    static final MethodHandle CLAMP_INPUT = findAccessor(CLAMP, "input");
+    static final Class<?> CONSTANT = findNested("Constant");
+    static final MethodHandle CONSTANT_VALUE = findAccessor(CONSTANT, "value");
+    static final Class<?> GRADIENT = findNested("YClampedGradient");
+    static final MethodHandle GRADIENT_FROM_Y = findAccessor(GRADIENT, "fromY");
+    static final MethodHandle GRADIENT_TO_Y = findAccessor(GRADIENT, "toY");
+    static final MethodHandle GRADIENT_FROM_VALUE = findAccessor(GRADIENT, "fromValue");
+    static final MethodHandle GRADIENT_TO_VALUE = findAccessor(GRADIENT, "toValue");
+    static final Class<?> HOLDER_HOLDER = findNested("HolderHolder");
+    static final MethodHandle HOLDER_HOLDER_FUNCTION = findAccessor(HOLDER_HOLDER, "function");
+
+    /**
+     * Fills {@code array} like {@code function.fillArray(array, provider)} would.
+     */
+    final void fill(double[] array, DensityFunction.ContextProvider provider) {
+        Frame frame = FRAMES.get();
+        int mark = frame.top;
+        try {
+            int[] lanes = frame.ints(array.length);
+            for (int i = 0; i < array.length; i++) {
+                lanes[i] = i;
+            }
+            eval(array, lanes, array.length, provider, frame);
+        } finally {
+            frame.top = mark;
+        }
+    }
+
+    /**
+     * Writes the value at column index {@code lanes[k]} to {@code out[k]} for every {@code k < count}. {@code out}
+     * is as long as the column, so {@code count == out.length} means every lane is live.
+     */
+    abstract void eval(double[] out, int[] lanes, int count, DensityFunction.ContextProvider provider, Frame frame);
+
+    /**
+     * Compiles {@code function}, or returns {@code null} when its root is not something a kernel speeds up.
+     */
+    static BatchKernel compile(DensityFunction function) {
+        BatchKernel kernel = node(function);
+        return kernel instanceof Opaque ? null : kernel;
+    }
+
+    private static BatchKernel node(DensityFunction function) {
+        try {
+            Class<?> type = function.getClass();
+            if (type == YBoundedDensityFunction.class) {
+                YBoundedDensityFunction bounded = (YBoundedDensityFunction) function;
+                return new YBounded(node(bounded.argument()), bounded.minY(), bounded.maxY(), bounded.below(),
+                        bounded.above());
+            }
+            if (type == HOLDER_HOLDER && HOLDER_HOLDER_FUNCTION != null) {
+                Holder<?> holder = (Holder<?>) HOLDER_HOLDER_FUNCTION.invoke(function);
+                return holder.value() instanceof DensityFunction inner ? node(inner) : new Opaque(function);
+            }
+            if (type == CONSTANT && CONSTANT_VALUE != null) {
+                return new Constant((double) CONSTANT_VALUE.invoke(function));
+            }
+            if (type == GRADIENT && GRADIENT_FROM_Y != null && GRADIENT_TO_Y != null && GRADIENT_FROM_VALUE != null
+                    && GRADIENT_TO_VALUE != null) {
+                return new Gradient((int) GRADIENT_FROM_Y.invoke(function), (int) GRADIENT_TO_Y.invoke(function),
+                        (double) GRADIENT_FROM_VALUE.invoke(function), (double) GRADIENT_TO_VALUE.invoke(function));
+            }
+            if (type == AP2 && AP2_TYPE != null && AP2_ARGUMENT1 != null && AP2_ARGUMENT2 != null) {
+                DensityFunction argument1 = (DensityFunction) AP2_ARGUMENT1.invoke(function);
+                DensityFunction argument2 = (DensityFunction) AP2_ARGUMENT2.invoke(function);
+                BatchKernel first = node(argument1);
+                BatchKernel second = node(argument2);
+                return switch (((Enum<?>) AP2_TYPE.invoke(function)).name()) {
+                    case "ADD" -> new Add(first, second);
+                    case "MUL" -> new Mul(first, second);
+                    case "MIN" -> new Min(first, second, argument2.minValue());
+                    case "MAX" -> new Max(first, second, argument2.maxValue());
+                    default -> new Opaque(function);
+                };
+            }
+            if (type == MUL_OR_ADD && MUL_OR_ADD_TYPE != null && MUL_OR_ADD_INPUT != null
+                    && MUL_OR_ADD_ARGUMENT != null) {
+                BatchKernel input = node((DensityFunction) MUL_OR_ADD_INPUT.invoke(function));
+                double argument = (double) MUL_OR_ADD_ARGUMENT.invoke(function);
+                return switch (((Enum<?>) MUL_OR_ADD_TYPE.invoke(function)).name()) {
+                    case "MUL" -> new Unary(input, Unary.SCALE, argument, 0.0D);
+                    case "ADD" -> new Unary(input, Unary.OFFSET, argument, 0.0D);
+                    default -> new Opaque(function);
+                };
+            }
+            if (type == MAPPED && MAPPED_TYPE != null && MAPPED_INPUT != null) {
+                int op = switch (((Enum<?>) MAPPED_TYPE.invoke(function)).name()) {
+                    case "ABS" -> Unary.ABS;
+                    case "SQUARE" -> Unary.SQUARE;
+                    case "CUBE" -> Unary.CUBE;
+                    case "HALF_NEGATIVE" -> Unary.HALF_NEGATIVE;
+                    case "QUARTER_NEGATIVE" -> Unary.QUARTER_NEGATIVE;
+                    case "SQUEEZE" -> Unary.SQUEEZE;
+                    default -> -1;
+                };
+                return op < 0 ? new Opaque(function)
+                        : new Unary(node((DensityFunction) MAPPED_INPUT.invoke(function)), op, 0.0D, 0.0D);
+            }
+            if (type == CLAMP && CLAMP_INPUT != null) {
+                return new Unary(node((DensityFunction) CLAMP_INPUT.invoke(function)), Unary.CLAMP,
+                        function.minValue(), function.maxValue());
+            }
+        } catch (Throwable throwable) {
+            throw new IllegalStateException("Failed to compile density function " + function, throwable);
+        }
+        return new Opaque(function);
+    }
+
+    static Class<?> findNested(String name) {
+        try {
+            return Class.forName(DensityFunctions.class.getName() + "$" + name, false,
+                    DensityFunctions.class.getClassLoader());
+        } catch (ClassNotFoundException ignored) {
+            return null;
+        }
+    }
+
+    static MethodHandle findAccessor(Class<?> owner, String name) {
+        if (owner == null) {
+            return null;
+        }
+        try {
+            Method accessor = owner.getDeclaredMethod(name);
+            return MethodHandles.privateLookupIn(owner, MethodHandles.lookup()).unreflect(accessor);
+        } catch (NoSuchMethodException | IllegalAccessException ignored) {
+            return null;
+        }
+    }
+
+    /** Narrows {@code lanes} to the entries whose {@code live} flag is set; returns the new count. */
+    private static int select(int[] lanes, int[] positions, boolean[] live, int count, int[] selected) {
+        int selectedCount = 0;
+        for (int k = 0; k < count; k++) {
+            if (live[k]) {
+                selected[selectedCount] = lanes[k];
+                positions[selectedCount++] = k;
+            }
+        }
+        return selectedCount;
+    }
+
+    /** Per-thread scratch arrays, handed out as a stack so nested kernels never share one. */
+    static final class Frame {
+        private Object[] slots = new Object[32];
+        private int top;
+
+        double[] doubles(int length) {
+            if (top < slots.length && slots[top] instanceof double[] array && array.length == length) {
+                top++;
+                return array;
+            }
+            double[] array = new double[length];
+            push(array);
+            return array;
+        }
+
+        int[] ints(int length) {
+            if (top < slots.length && slots[top] instanceof int[] array && array.length == length) {
+                top++;
+                return array;
+            }
+            int[] array = new int[length];
+            push(array);
+            return array;
+        }
+
+        boolean[] flags(int length) {
+            if (top < slots.length && slots[top] instanceof boolean[] array && array.length == length) {
+                top++;
+                return array;
+            }
+            boolean[] array = new boolean[length];
+            push(array);
+            return array;
+        }
+
+        private void push(Object array) {
+            if (top == slots.length) {
+                slots = Arrays.copyOf(slots, slots.length * 2);
+            }
+            slots[top++] = array;
+        }
+    }
+
+    /** Anything that is not plain arithmetic; evaluated by vanilla. */
+    static final class Opaque extends BatchKernel {
+        private final DensityFunction function;
+
+        Opaque(DensityFunction function) {
+            this.function = function;
+        }
+
+        @Override
+        void eval(double[] out, int[] lanes, int count, DensityFunction.ContextProvider provider, Frame frame) {
+            if (count == out.length) {
+                function.fillArray(out, provider);
+                return;
+            }
+            for (int k = 0; k < count; k++) {
+                out[k] = function.compute(provider.forIndex(lanes[k]));
+            }
+        }
+    }
+
+    static final class Constant extends BatchKernel {
+        private final double value;
+
+        Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        void eval(double[] out, int[] lanes, int count, DensityFunction.ContextProvider provider, Frame frame) {
+            Arrays.fill(out, 0, count, value);
+        }
+    }
+
+    static final class Gradient extends BatchKernel {
+        private final int fromY;
+        private final int toY;
+        private final double fromValue;
+        private final double toValue;
+
+        Gradient(int fromY, int toY, double fromValue, double toValue) {
+            this.fromY = fromY;
+            this.toY = toY;
+            this.fromValue = fromValue;
+            this.toValue = toValue;
+        }
+
+        @Override
+        void eval(double[] out, int[] lanes, int count, DensityFunction.ContextProvider provider, Frame frame) {
+            for (int k = 0; k < count; k++) {
+                out[k] = Mth.clampedMap(provider.forIndex(lanes[k]).blockY(), fromY, toY, fromValue, toValue);
+            }
+        }
+    }
+
+    static final class Add extends BatchKernel {
+        private final BatchKernel first;
+        private final BatchKernel second;
+
+        Add(BatchKernel first, BatchKernel second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        void eval(double[] out, int[] lanes, int count, DensityFunction.ContextProvider provider, Frame frame) {
+            first.eval(out, lanes, count, provider, frame);
+            double[] values = frame.doubles(out.length);
+            second.eval(values, lanes, count, provider, frame);
+            for (int k = 0; k < count; k++) {
+                out[k] += values[k];
+            }
+        }
+    }
+
+    /** {@code first == 0 ? 0 : first * second}, evaluating {@code second} only where {@code first != 0}. */
+    static final class Mul extends BatchKernel {
+        private final BatchKernel first;
+        private final BatchKernel second;
+
+        Mul(BatchKernel first, BatchKernel second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        void eval(double[] out, int[] lanes, int count, DensityFunction.ContextProvider provider, Frame frame) {
+            first.eval(out, lanes, count, provider, frame);
+            boolean[] live = frame.flags(out.length);
+            int liveCount = 0;
+            for (int k = 0; k < count; k++) {
+                boolean nonZero = out[k] != 0.0D;
+                live[k] = nonZero;
+                out[k] = nonZero ? out[k] : 0.0D;
+                liveCount += nonZero ? 1 : 0;
+            }
+            if (liveCount == 0) {
+                return;
+            }
+
+            double[] values = frame.doubles(out.length);
+            if (liveCount == count) {
+                second.eval(values, lanes, count, provider, frame);
+                for (int k = 0; k < count; k++) {
+                    out[k] *= values[k];
+                }
+                return;
+            }
+            int[] selected = frame.ints(out.length);
+            int[] positions = frame.ints(out.length);
+            select(lanes, positions, live, count, selected);
+            second.eval(values, selected, liveCount, provider, frame);
+            for (int j = 0; j < liveCount; j++) {
+                out[positions[j]] *= values[j];
+            }
+        }
+    }
+
+    /** {@code first < secondMin ? first : min(first, second)}. */
+    static final class Min extends BatchKernel {
+        private final BatchKernel first;
+        private final BatchKernel second;
+        private final double secondMin;
+
+        Min(BatchKernel first, BatchKernel second, double secondMin) {
+            this.first = first;
+            this.second = second;
+            this.secondMin = secondMin;
+        }
+
+        @Override
+        void eval(double[] out, int[] lanes, int count, DensityFunction.ContextProvider provider, Frame frame) {
+            first.eval(out, lanes, count, provider, frame);
+            boolean[] live = frame.flags(out.length);
+            int liveCount = 0;
+            for (int k = 0; k < count; k++) {
+                boolean open = !(out[k] < secondMin);
+                live[k] = open;
+                liveCount += open ? 1 : 0;
+            }
+            if (liveCount == 0) {
+                return;
+            }
+
+            double[] values = frame.doubles(out.length);
+            if (liveCount == count) {
+                second.eval(values, lanes, count, provider, frame);
+                for (int k = 0; k < count; k++) {
+                    out[k] = Math.min(out[k], values[k]);
+                }
+                return;
+            }
+            int[] selected = frame.ints(out.length);
+            int[] positions = frame.ints(out.length);
+            select(lanes, positions, live, count, selected);
+            second.eval(values, selected, liveCount, provider, frame);
+            for (int j = 0; j < liveCount; j++) {
+                out[positions[j]] = Math.min(out[positions[j]], values[j]);
+            }
+        }
+    }
+
+    /** {@code first > secondMax ? first : max(first, second)}. */
+    static final class Max extends BatchKernel {
+        private final BatchKernel first;
+        private final BatchKernel second;
+        private final double secondMax;
+
+        Max(BatchKernel first, BatchKernel second, double secondMax) {
+            this.first = first;
+            this.second = second;
+            this.secondMax = secondMax;
+        }
+
+        @Override
+        void eval(double[] out, int[] lanes, int count, DensityFunction.ContextProvider provider, Frame frame) {
+            first.eval(out, lanes, count, provider, frame);
+            boolean[] live = frame.flags(out.length);
+            int liveCount = 0;
+            for (int k = 0; k < count; k++) {
+                boolean open = !(out[k] > secondMax);
+                live[k] = open;
+                liveCount += open ? 1 : 0;
+            }
+            if (liveCount == 0) {
+                return;
+            }
+
+            double[] values = frame.doubles(out.length);
+            if (liveCount == count) {
+                second.eval(values, lanes, count, provider, frame);
+                for (int k = 0; k < count; k++) {
+                    out[k] = Math.max(out[k], values[k]);
+                }
+                return;
+            }
+            int[] selected = frame.ints(out.length);
+            int[] positions = frame.ints(out.length);
+            select(lanes, positions, live, count, selected);
+            second.eval(values, selected, liveCount, provider, frame);
+            for (int j = 0; j < liveCount; j++) {
+                out[positions[j]] = Math.max(out[positions[j]], values[j]);
+            }
+        }
+    }
+
+    /** The single-input nodes: vanilla's {@code mul}/{@code add} by a constant, the unary maps and {@code clamp}. */
+    static final class Unary extends BatchKernel {
+        static final int SCALE = 0;
+        static final int OFFSET = 1;
+        static final int ABS = 2;
+        static final int SQUARE = 3;
+        static final int CUBE = 4;
+        static final int HALF_NEGATIVE = 5;
+        static final int QUARTER_NEGATIVE = 6;
+        static final int SQUEEZE = 7;
+        static final int CLAMP = 8;
+
+        private final BatchKernel input;
+        private final int op;
+        private final double a;
+        private final double b;
+
+        Unary(BatchKernel input, int op, double a, double b) {
+            this.input = input;
+            this.op = op;
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        void eval(double[] out, int[] lanes, int count, DensityFunction.ContextProvider provider, Frame frame) {
+            input.eval(out, lanes, count, provider, frame);
+            double a = this.a;
+            double b = this.b;
+            switch (op) {
+                case SCALE -> {
+                    for (int k = 0; k < count; k++) {
+                        out[k] *= a;
+                    }
+                }
+                case OFFSET -> {
+                    for (int k = 0; k < count; k++) {
+                        out[k] += a;
+                    }
+                }
+                case ABS -> {
+                    for (int k = 0; k < count; k++) {
+                        out[k] = Math.abs(out[k]);
+                    }
+                }
+                case SQUARE -> {
+                    for (int k = 0; k < count; k++) {
+                        out[k] = out[k] * out[k];
+                    }
+                }
+                case CUBE -> {
+                    for (int k = 0; k < count; k++) {
+                        out[k] = out[k] * out[k] * out[k];
+                    }
+                }
+                case HALF_NEGATIVE -> {
+                    for (int k = 0; k < count; k++) {
+                        out[k] = out[k] > 0.0D ? out[k] : out[k] * 0.5D;
+                    }
+                }
+                case QUARTER_NEGATIVE -> {
+                    for (int k = 0; k < count; k++) {
+                        out[k] = out[k] > 0.0D ? out[k] : out[k] * 0.25D;
+                    }
+                }
+                case SQUEEZE -> {
+                    for (int k = 0; k < count; k++) {
+                        double e = Mth.clamp(out[k], -1.0D, 1.0D);
+                        out[k] = e / 2.0D - e * e * e / 24.0D;
+                    }
+                }
+                case CLAMP -> {
+                    for (int k = 0; k < count; k++) {
+                        out[k] = Mth.clamp(out[k], a, b);
+                    }
+                }
+                default -> throw new IllegalStateException("Unknown unary op " + op);
+            }
+        }
+    }
+
+    /** {@link YBoundedDensityFunction}: constants outside the band, the argument on the lanes inside it. */
+    static final class YBounded extends BatchKernel {
+        private final BatchKernel argument;
+        private final int minY;
+        private final int maxY;
+        private final double below;
+        private final double above;
+
+        YBounded(BatchKernel argument, int minY, int maxY, double below, double above) {
+            this.argument = argument;
+            this.minY = minY;
+            this.maxY = maxY;
+            this.below = below;
+            this.above = above;
+        }
+
+        @Override
+        void eval(double[] out, int[] lanes, int count, DensityFunction.ContextProvider provider, Frame frame) {
+            boolean[] live = frame.flags(out.length);
+            int liveCount = 0;
+            for (int k = 0; k < count; k++) {
+                int y = provider.forIndex(lanes[k]).blockY();
+                boolean inBand = y >= minY && y <= maxY;
+                live[k] = inBand;
+                out[k] = y < minY ? below : above;
+                liveCount += inBand ? 1 : 0;
+            }
+            if (liveCount == 0) {
+                return;
+            }
+            if (liveCount == count) {
+                argument.eval(out, lanes, count, provider, frame);
+                return;
+            }
+
+            double[] values = frame.doubles(out.length);
+            int[] selected = frame.ints(out.length);
+            int[] positions = frame.ints(out.length);
+            select(lanes, positions, live, count, selected);
+            argument.eval(values, selected, liveCount, provider, frame);
+            for (int j = 0; j < liveCount; j++) {
+                out[positions[j]] = values[j];
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.theexpanse.worldgen.density;
+
+import com.mojang.serialization.MapCodec;
+import com.theexpanse.ExpanseConfig;
+import net.minecraft.util.KeyDispatchDataCodec;
+import net.minecraft.world.level.levelgen.DensityFunction;
+
+/**
+ * {@code the_expanse:batched}: fills {@code argument} a whole interpolation column at a time with a
+ * {@link BatchKernel} compiled from its wired tree.
+ *
+ * <p>Compilation happens in {@link #mapAll}, which is where {@code RandomState} and {@code NoiseChunk} wire
+ * their noises and caches in, and only when {@code batchedDensity} is enabled; otherwise, and for single
+ * points, this is a pass-through. Place it directly under {@code interpolated}/{@code blend_density}, where
+ * {@code fillArray} is called with a full column of cell corners.
+ */
+public final class BatchedDensityFunction implements DensityFunction {
+    public static final MapCodec<BatchedDensityFunction> DATA_CODEC =
+            DensityFunction.HOLDER_HELPER_CODEC.fieldOf("argument")
+                    .xmap(argument -> new BatchedDensityFunction(argument, null), BatchedDensityFunction::argument);
+    public static final KeyDispatchDataCodec<BatchedDensityFunction> CODEC = KeyDispatchDataCodec.of(DATA_CODEC);
+
+    private final DensityFunction argument;
+    private final BatchKernel kernel;
+
+    private BatchedDensityFunction(DensityFunction argument, BatchKernel kernel) {
+        this.argument = argument;
+        this.kernel = kernel;
+    }
+
+    public DensityFunction argument() {
+        return argument;
+    }
+
+    /** Whether {@link #fillArray} runs a compiled kernel rather than vanilla's. */
+    public boolean isCompiled() {
+        return kernel != null;
+    }
+
+    @Override
+    public double compute(FunctionContext context) {
+        return argument.compute(context);
+    }
+
+    @Override
+    public void fillArray(double[] array, ContextProvider provider) {
+        if (kernel != null) {
+            kernel.fill(array, provider);
+        } else {
+            argument.fillArray(array, provider);
+        }
+    }
+
+    @Override
+    public DensityFunction mapAll(Visitor visitor) {
+        DensityFunction wired = argument.mapAll(visitor);
+        return visitor.apply(new BatchedDensityFunction(wired,
+                ExpanseConfig.batchedDensity() ? BatchKernel.compile(wired) : null));
+    }
+
+    @Override
+    public double minValue() {
+        return argument.minValue();
+    }
+
+    @Override
+    public double maxValue() {
+        return argument.maxValue();
+    }
+
+    @Override
+    public KeyDispatchDataCodec<? extends DensityFunction> codec() {
+        return CODEC;
+    }
+
+    @Override
+    public String toString() {
+        return "Batched[" + argument + "]";
+    }
+}
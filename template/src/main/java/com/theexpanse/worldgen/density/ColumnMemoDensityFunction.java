@@ -0,0 +1,144 @@
+package com.theexpanse.worldgen.density;
+
+import com.mojang.serialization.MapCodec;
+import net.minecraft.util.KeyDispatchDataCodec;
+import net.minecraft.world.level.levelgen.DensityFunction;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code the_expanse:column_memo}: remembers {@code argument} per block column, for arguments that do not
+ * depend on Y.
+ *
+ * <p>The climate sampler asks the router's climate inputs for every quart of a 2288-block column. Continents,
+ * erosion and ridges are already {@code flat_cache}d, but temperature and vegetation are bare
+ * {@code shifted_noise} and are evaluated again at every quart. With the memo each column is evaluated once
+ * per chunk. Values live in 16x16 direct-mapped tables of primitive arrays owned by the
+ * calling thread and reused across chunks: {@link #mapAll} builds a new instance per noise chunk, so tables held
+ * per instance would be allocated again for every chunk. Each thread keeps a few tables, each claimed by one
+ * instance and cleared when another claims it. The sampler evaluates all climate inputs at each point before
+ * moving on, so interleaved instances keep a table each instead of evicting one another; instances wired for
+ * different seeds or chunks never see each other's values.
+ *
+ * <p>Only wrap functions whose value is the same at every Y ({@code shifted_noise} with a {@code y_scale} of 0,
+ * {@code end_islands}); anything else would return the first Y it saw. A {@code flat_cache}d argument already
+ * has a value per column for the whole chunk and gains nothing from the memo.
+ */
+public final class ColumnMemoDensityFunction implements DensityFunction {
+    public static final MapCodec<ColumnMemoDensityFunction> DATA_CODEC =
+            DensityFunction.HOLDER_HELPER_CODEC.fieldOf("argument")
+                    .xmap(ColumnMemoDensityFunction::new, ColumnMemoDensityFunction::argument);
+    public static final KeyDispatchDataCodec<ColumnMemoDensityFunction> CODEC = KeyDispatchDataCodec.of(DATA_CODEC);
+
+    private static final AtomicLong NEXT_OWNER = new AtomicLong();
+    private static final ThreadLocal<Tables> TABLES = ThreadLocal.withInitial(Tables::new);
+
+    private final DensityFunction argument;
+    private final long owner = NEXT_OWNER.getAndIncrement();
+
+    public ColumnMemoDensityFunction(DensityFunction argument) {
+        this.argument = argument;
+    }
+
+    public DensityFunction argument() {
+        return argument;
+    }
+
+    @Override
+    public double compute(FunctionContext context) {
+        int x = context.blockX();
+        int z = context.blockZ();
+        int slot = (x & 15) | (z & 15) << 4;
+        long column = Table.column(x, z);
+
+        Table table = TABLES.get().claim(owner);
+        if (table.columns[slot] == column) {
+            return table.values[slot];
+        }
+
+        double value = argument.compute(context);
+        table.columns[slot] = column;
+        table.values[slot] = value;
+        return value;
+    }
+
+    @Override
+    public void fillArray(double[] array, ContextProvider provider) {
+        provider.fillAllDirectly(array, this);
+    }
+
+    @Override
+    public DensityFunction mapAll(Visitor visitor) {
+        return visitor.apply(new ColumnMemoDensityFunction(argument.mapAll(visitor)));
+    }
+
+    @Override
+    public double minValue() {
+        return argument.minValue();
+    }
+
+    @Override
+    public double maxValue() {
+        return argument.maxValue();
+    }
+
+    @Override
+    public KeyDispatchDataCodec<? extends DensityFunction> codec() {
+        return CODEC;
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnMemo[" + argument + "]";
+    }
+
+    /** One thread's tables; enough for every memo in a router to keep its own. */
+    private static final class Tables {
+        private static final int SIZE = 8;
+
+        private final Table[] tables = new Table[SIZE];
+        private int nextVictim;
+
+        Tables() {
+            for (int i = 0; i < SIZE; i++) {
+                tables[i] = new Table();
+            }
+        }
+
+        /** The table owned by {@code owner}, claiming and clearing the least recently claimed one if it has none. */
+        Table claim(long owner) {
+            for (Table table : tables) {
+                if (table.owner == owner) {
+                    return table;
+                }
+            }
+            Table table = tables[nextVictim];
+            nextVictim = (nextVictim + 1) % SIZE;
+            table.reset(owner);
+            return table;
+        }
+    }
+
+    private static final class Table {
+        // Column (-2^31, 0) lies far outside any world border, so it marks an empty slot.
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        final long[] columns = new long[256];
+        final double[] values = new double[256];
+        long owner = -1L;
+
+        Table() {
+            Arrays.fill(columns, EMPTY);
+        }
+
+        void reset(long owner) {
+            this.owner = owner;
+            Arrays.fill(columns, EMPTY);
+        }
+
+        static long column(int x, int z) {
+            return (long) x << 32 | (z & 0xFFFFFFFFL);
+        }
+    }
+}
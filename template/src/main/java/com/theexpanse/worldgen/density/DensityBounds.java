@@ -0,0 +1,207 @@
+package com.theexpanse.worldgen.density;
+
+import net.minecraft.core.Holder;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.levelgen.DensityFunction;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Conservative value bounds of a density function tree over a band of Y, for finding where it can never be
+ * positive.
+ *
+ * <p>Bounds come from interval arithmetic over the same nodes {@link BatchKernel} understands, with
+ * {@code y_clamped_gradient} and {@code the_expanse:y_bounded} narrowed to the band. Caches, markers,
+ * {@code blend_density} (which is the identity without a blender) and our own pass-through wrappers are looked
+ * through; anything else contributes its declared {@code minValue}/{@code maxValue}. A bound is never tighter
+ * than the values vanilla can compute, so a band whose upper bound is at most zero is solid nowhere.
+ */
+public final class DensityBounds {
+    private static final Class<?> MARKER_OR_MARKED = BatchKernel.findNested("MarkerOrMarked");
+    private static final MethodHandle MARKER_WRAPPED = BatchKernel.findAccessor(MARKER_OR_MARKED, "wrapped");
+    private static final Class<?> BLEND_DENSITY = BatchKernel.findNested("BlendDensity");
+    private static final MethodHandle BLEND_DENSITY_INPUT = BatchKernel.findAccessor(BLEND_DENSITY, "input");
+    private static final Class<?> RANGE_CHOICE = BatchKernel.findNested("RangeChoice");
+    private static final MethodHandle RANGE_CHOICE_IN_RANGE = BatchKernel.findAccessor(RANGE_CHOICE, "whenInRange");
+    private static final MethodHandle RANGE_CHOICE_OUT_OF_RANGE =
+            BatchKernel.findAccessor(RANGE_CHOICE, "whenOutOfRange");
+
+    private DensityBounds() {
+    }
+
+    /**
+     * Returns the lowest {@code minY + k * step} at or below {@code maxY + 1} from which {@code function} is at
+     * most zero for every Y up to {@code maxY}; {@code maxY + 1} itself when no such boundary lies lower.
+     */
+    public static int nonPositiveFrom(DensityFunction function, int minY, int maxY, int step) {
+        int low = 0;
+        int high = Mth.positiveCeilDiv(maxY + 1 - minY, step);
+        // Narrower bands have narrower bounds, so the predicate is monotone in k.
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int fromY = minY + middle * step;
+            if (fromY > maxY || range(function, fromY, maxY)[1] <= 0.0D) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return Math.min(minY + low * step, maxY + 1);
+    }
+
+    /** Returns {@code {lower, upper}} bounds of {@code function} over {@code minY <= y <= maxY}. */
+    static double[] range(DensityFunction function, int minY, int maxY) {
+        try {
+            Class<?> type = function.getClass();
+            if (type == YBoundedDensityFunction.class) {
+                YBoundedDensityFunction bounded = (YBoundedDensityFunction) function;
+                double lower = Double.POSITIVE_INFINITY;
+                double upper = Double.NEGATIVE_INFINITY;
+                if (minY < bounded.minY()) {
+                    lower = Math.min(lower, bounded.below());
+                    upper = Math.max(upper, bounded.below());
+                }
+                if (maxY > bounded.maxY()) {
+                    lower = Math.min(lower, bounded.above());
+                    upper = Math.max(upper, bounded.above());
+                }
+                int bandMin = Math.max(minY, bounded.minY());
+                int bandMax = Math.min(maxY, bounded.maxY());
+                if (bandMin <= bandMax) {
+                    double[] inner = range(bounded.argument(), bandMin, bandMax);
+                    lower = Math.min(lower, inner[0]);
+                    upper = Math.max(upper, inner[1]);
+                }
+                return new double[] {lower, upper};
+            }
+            if (function instanceof BatchedDensityFunction batched) {
+                return range(batched.argument(), minY, maxY);
+            }
+            if (function instanceof ColumnMemoDensityFunction memo) {
+                return range(memo.argument(), minY, maxY);
+            }
+            if (MARKER_OR_MARKED != null && MARKER_WRAPPED != null && MARKER_OR_MARKED.isInstance(function)) {
+                return range((DensityFunction) MARKER_WRAPPED.invoke(function), minY, maxY);
+            }
+            if (type == BLEND_DENSITY && BLEND_DENSITY_INPUT != null) {
+                return range((DensityFunction) BLEND_DENSITY_INPUT.invoke(function), minY, maxY);
+            }
+            if (type == BatchKernel.HOLDER_HOLDER && BatchKernel.HOLDER_HOLDER_FUNCTION != null) {
+                Holder<?> holder = (Holder<?>) BatchKernel.HOLDER_HOLDER_FUNCTION.invoke(function);
+                if (holder.isBound() && holder.value() instanceof DensityFunction inner) {
+                    return range(inner, minY, maxY);
+                }
+            }
+            if (type == BatchKernel.CONSTANT && BatchKernel.CONSTANT_VALUE != null) {
+                double value = (double) BatchKernel.CONSTANT_VALUE.invoke(function);
+                return new double[] {value, value};
+            }
+            if (type == BatchKernel.GRADIENT && BatchKernel.GRADIENT_FROM_Y != null && BatchKernel.GRADIENT_TO_Y != null
+                    && BatchKernel.GRADIENT_FROM_VALUE != null && BatchKernel.GRADIENT_TO_VALUE != null) {
+                int fromY = (int) BatchKernel.GRADIENT_FROM_Y.invoke(function);
+                int toY = (int) BatchKernel.GRADIENT_TO_Y.invoke(function);
+                double fromValue = (double) BatchKernel.GRADIENT_FROM_VALUE.invoke(function);
+                double toValue = (double) BatchKernel.GRADIENT_TO_VALUE.invoke(function);
+                return ordered(Mth.clampedMap(minY, fromY, toY, fromValue, toValue),
+                        Mth.clampedMap(maxY, fromY, toY, fromValue, toValue));
+            }
+            if (type == BatchKernel.AP2 && BatchKernel.AP2_TYPE != null && BatchKernel.AP2_ARGUMENT1 != null
+                    && BatchKernel.AP2_ARGUMENT2 != null) {
+                double[] first = range((DensityFunction) BatchKernel.AP2_ARGUMENT1.invoke(function), minY, maxY);
+                double[] second = range((DensityFunction) BatchKernel.AP2_ARGUMENT2.invoke(function), minY, maxY);
+                switch (((Enum<?>) BatchKernel.AP2_TYPE.invoke(function)).name()) {
+                    case "ADD" -> {
+                        return unbounded(first[0] + second[0], first[1] + second[1]);
+                    }
+                    case "MUL" -> {
+                        return product(first, second[0], second[1]);
+                    }
+                    case "MIN" -> {
+                        return new double[] {Math.min(first[0], second[0]), Math.min(first[1], second[1])};
+                    }
+                    case "MAX" -> {
+                        return new double[] {Math.max(first[0], second[0]), Math.max(first[1], second[1])};
+                    }
+                    default -> {
+                        return declared(function);
+                    }
+                }
+            }
+            if (type == BatchKernel.MUL_OR_ADD && BatchKernel.MUL_OR_ADD_TYPE != null
+                    && BatchKernel.MUL_OR_ADD_INPUT != null && BatchKernel.MUL_OR_ADD_ARGUMENT != null) {
+                double[] input = range((DensityFunction) BatchKernel.MUL_OR_ADD_INPUT.invoke(function), minY, maxY);
+                double argument = (double) BatchKernel.MUL_OR_ADD_ARGUMENT.invoke(function);
+                return switch (((Enum<?>) BatchKernel.MUL_OR_ADD_TYPE.invoke(function)).name()) {
+                    case "MUL" -> product(input, argument, argument);
+                    case "ADD" -> unbounded(input[0] + argument, input[1] + argument);
+                    default -> declared(function);
+                };
+            }
+            if (type == BatchKernel.MAPPED && BatchKernel.MAPPED_TYPE != null && BatchKernel.MAPPED_INPUT != null) {
+                double[] input = range((DensityFunction) BatchKernel.MAPPED_INPUT.invoke(function), minY, maxY);
+                double lower = input[0];
+                double upper = input[1];
+                return switch (((Enum<?>) BatchKernel.MAPPED_TYPE.invoke(function)).name()) {
+                    case "ABS" -> lower >= 0.0D ? input
+                            : upper <= 0.0D ? new double[] {-upper, -lower}
+                            : new double[] {0.0D, Math.max(-lower, upper)};
+                    case "SQUARE" -> lower >= 0.0D ? new double[] {lower * lower, upper * upper}
+                            : upper <= 0.0D ? new double[] {upper * upper, lower * lower}
+                            : new double[] {0.0D, Math.max(lower * lower, upper * upper)};
+                    case "CUBE" -> new double[] {lower * lower * lower, upper * upper * upper};
+                    case "HALF_NEGATIVE" -> new double[] {negativeScaled(lower, 0.5D), negativeScaled(upper, 0.5D)};
+                    case "QUARTER_NEGATIVE" ->
+                            new double[] {negativeScaled(lower, 0.25D), negativeScaled(upper, 0.25D)};
+                    case "SQUEEZE" -> new double[] {squeeze(lower), squeeze(upper)};
+                    default -> declared(function);
+                };
+            }
+            if (type == BatchKernel.CLAMP && BatchKernel.CLAMP_INPUT != null) {
+                double[] input = range((DensityFunction) BatchKernel.CLAMP_INPUT.invoke(function), minY, maxY);
+                return new double[] {Mth.clamp(input[0], function.minValue(), function.maxValue()),
+                        Mth.clamp(input[1], function.minValue(), function.maxValue())};
+            }
+            if (type == RANGE_CHOICE && RANGE_CHOICE_IN_RANGE != null && RANGE_CHOICE_OUT_OF_RANGE != null) {
+                double[] inRange = range((DensityFunction) RANGE_CHOICE_IN_RANGE.invoke(function), minY, maxY);
+                double[] outOfRange = range((DensityFunction) RANGE_CHOICE_OUT_OF_RANGE.invoke(function), minY, maxY);
+                return new double[] {Math.min(inRange[0], outOfRange[0]), Math.max(inRange[1], outOfRange[1])};
+            }
+        } catch (Throwable throwable) {
+            throw new IllegalStateException("Failed to bound density function " + function, throwable);
+        }
+        return declared(function);
+    }
+
+    private static double[] declared(DensityFunction function) {
+        return unbounded(function.minValue(), function.maxValue());
+    }
+
+    private static double[] product(double[] first, double secondLower, double secondUpper) {
+        double a = first[0] * secondLower;
+        double b = first[0] * secondUpper;
+        double c = first[1] * secondLower;
+        double d = first[1] * secondUpper;
+        return unbounded(Math.min(Math.min(a, b), Math.min(c, d)), Math.max(Math.max(a, b), Math.max(c, d)));
+    }
+
+    /** Widens to the whole line when infinities met (infinity minus infinity, zero times infinity). */
+    private static double[] unbounded(double lower, double upper) {
+        if (Double.isNaN(lower) || Double.isNaN(upper)) {
+            return new double[] {Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY};
+        }
+        return new double[] {lower, upper};
+    }
+
+    private static double[] ordered(double a, double b) {
+        return new double[] {Math.min(a, b), Math.max(a, b)};
+    }
+
+    private static double negativeScaled(double value, double scale) {
+        return value > 0.0D ? value : value * scale;
+    }
+
+    private static double squeeze(double value) {
+        double e = Mth.clamp(value, -1.0D, 1.0D);
+        return e / 2.0D - e * e * e / 24.0D;
+    }
+}
@@ -0,0 +1,33 @@
+package com.theexpanse.worldgen.density;
+
+import com.mojang.serialization.MapCodec;
+import com.theexpanse.TheExpanse;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.world.level.levelgen.DensityFunction;
+import net.neoforged.bus.api.IEventBus;
+import net.neoforged.neoforge.registries.DeferredHolder;
+import net.neoforged.neoforge.registries.DeferredRegister;
+
+public final class DensityFunctionRegistry {
+    private DensityFunctionRegistry() { }
+
+    public static final DeferredRegister<MapCodec<? extends DensityFunction>> DENSITY_FUNCTION_TYPES =
+            DeferredRegister.create(Registries.DENSITY_FUNCTION_TYPE, TheExpanse.MOD_ID);
+
+    // === Constant outside a Y band, the wrapped function inside it ===
+    public static final DeferredHolder<MapCodec<? extends DensityFunction>, MapCodec<YBoundedDensityFunction>>
+            Y_BOUNDED = DENSITY_FUNCTION_TYPES.register("y_bounded", () -> YBoundedDensityFunction.DATA_CODEC);
+
+    // === Per-column memo for Y-independent router inputs ===
+    public static final DeferredHolder<MapCodec<? extends DensityFunction>, MapCodec<ColumnMemoDensityFunction>>
+            COLUMN_MEMO = DENSITY_FUNCTION_TYPES.register("column_memo", () -> ColumnMemoDensityFunction.DATA_CODEC);
+
+    // === Column-at-a-time evaluation of arithmetic subtrees ===
+    public static final DeferredHolder<MapCodec<? extends DensityFunction>, MapCodec<BatchedDensityFunction>>
+            BATCHED = DENSITY_FUNCTION_TYPES.register("batched", () -> BatchedDensityFunction.DATA_CODEC);
+
+    // === Registration hook ===
+    public static void register(IEventBus modBus) {
+        DENSITY_FUNCTION_TYPES.register(modBus);
+    }
+}
@@ -0,0 +1,85 @@
+package com.theexpanse.worldgen.density;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.MapCodec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import net.minecraft.util.KeyDispatchDataCodec;
+import net.minecraft.world.level.levelgen.DensityFunction;
+
+/**
+ * {@code the_expanse:y_bounded}: evaluates {@code argument} only for {@code min_y <= y <= max_y} and returns
+ * {@code below} / {@code above} outside that band.
+ *
+ * <p>The Expanse's noise settings are 2288 blocks tall, but their terrain trees are faded to a constant by
+ * {@code y_clamped_gradient} slides outside the vanilla terrain envelope. Wrapping the faded subtree with its
+ * slide band and the constants it settles to keeps the result identical while the interpolator's corner fills
+ * above and below the envelope become array stores instead of tree walks.
+ *
+ * <p>Place it inside {@code interpolated}/{@code blend_density} so blending near legacy chunks is unaffected.
+ */
+public record YBoundedDensityFunction(DensityFunction argument, int minY, int maxY, double below, double above)
+        implements DensityFunction {
+    public static final MapCodec<YBoundedDensityFunction> DATA_CODEC = RecordCodecBuilder.<YBoundedDensityFunction>mapCodec(
+            instance -> instance.group(
+                    DensityFunction.HOLDER_HELPER_CODEC.fieldOf("argument").forGetter(YBoundedDensityFunction::argument),
+                    Codec.INT.fieldOf("min_y").forGetter(YBoundedDensityFunction::minY),
+                    Codec.INT.fieldOf("max_y").forGetter(YBoundedDensityFunction::maxY),
+                    Codec.DOUBLE.fieldOf("below").forGetter(YBoundedDensityFunction::below),
+                    Codec.DOUBLE.fieldOf("above").forGetter(YBoundedDensityFunction::above)
+            ).apply(instance, YBoundedDensityFunction::new))
+            .validate(function -> function.minY <= function.maxY
+                    ? DataResult.success(function)
+                    : DataResult.error(() -> "min_y " + function.minY + " is above max_y " + function.maxY));
+    public static final KeyDispatchDataCodec<YBoundedDensityFunction> CODEC = KeyDispatchDataCodec.of(DATA_CODEC);
+
+    @Override
+    public double compute(FunctionContext context) {
+        int y = context.blockY();
+        if (y < minY) {
+            return below;
+        }
+        if (y > maxY) {
+            return above;
+        }
+        return argument.compute(context);
+    }
+
+    @Override
+    public void fillArray(double[] array, ContextProvider provider) {
+        int inBand = 0;
+        for (int i = 0; i < array.length; i++) {
+            int y = provider.forIndex(i).blockY();
+            if (y >= minY && y <= maxY) {
+                inBand++;
+            }
+        }
+
+        if (inBand == array.length) {
+            argument.fillArray(array, provider);
+        } else {
+            // Outside points are constants; the few in-band ones go point by point, like fillAllDirectly.
+            provider.fillAllDirectly(array, this);
+        }
+    }
+
+    @Override
+    public DensityFunction mapAll(Visitor visitor) {
+        return visitor.apply(new YBoundedDensityFunction(argument.mapAll(visitor), minY, maxY, below, above));
+    }
+
+    @Override
+    public double minValue() {
+        return Math.min(argument.minValue(), Math.min(below, above));
+    }
+
+    @Override
+    public double maxValue() {
+        return Math.max(argument.maxValue(), Math.max(below, above));
+    }
+
+    @Override
+    public KeyDispatchDataCodec<? extends DensityFunction> codec() {
+        return CODEC;
+    }
+}
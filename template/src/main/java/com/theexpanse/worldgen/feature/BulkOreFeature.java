@@ -0,0 +1,328 @@
+package com.theexpanse.worldgen.feature;
+
+import com.mojang.serialization.Codec;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.util.Mth;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.WorldGenLevel;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.BulkSectionAccess;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.levelgen.feature.Feature;
+import net.minecraft.world.level.levelgen.feature.FeaturePlaceContext;
+import net.minecraft.world.level.levelgen.feature.configurations.OreConfiguration;
+import net.minecraft.world.level.levelgen.structure.templatesystem.BlockMatchTest;
+import net.minecraft.world.level.levelgen.structure.templatesystem.BlockStateMatchTest;
+import net.minecraft.world.level.levelgen.structure.templatesystem.RuleTest;
+import net.minecraft.world.level.levelgen.structure.templatesystem.TagMatchTest;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Ore feature producing the same vein shapes as {@code minecraft:ore}, written one chunk section at a time.
+ *
+ * <p>Vanilla writes each vein blob by blob, resolving the section, write permission and target rules for every
+ * block. This feature first collects the vein's candidate positions, then visits them grouped by section:
+ * write permission is checked once per section, sections whose palette cannot hold any target are skipped
+ * outright, and deterministic target rules are evaluated once per distinct block state.
+ *
+ * <p>Output matches {@code minecraft:ore} whenever the targets are tag, block or block state matches and
+ * {@code discard_chance_on_air_exposure} is zero, which covers this mod's configured features. Random rule
+ * tests and air-exposure rolls still work, but consume randomness in section order instead of blob order.
+ */
+public class BulkOreFeature extends Feature<OreConfiguration> {
+    private static final int MAX_MEMOISED_TARGETS = 31;
+    private static final int UNKNOWN_STATE = -1;
+    private static final int OFFSET_BITS = 8;
+    private static final int OFFSET_MASK = (1 << OFFSET_BITS) - 1;
+
+    public BulkOreFeature(Codec<OreConfiguration> codec) {
+        super(codec);
+    }
+
+    @Override
+    public boolean place(FeaturePlaceContext<OreConfiguration> context) {
+        RandomSource random = context.random();
+        BlockPos origin = context.origin();
+        WorldGenLevel level = context.level();
+        OreConfiguration config = context.config();
+
+        float angle = random.nextFloat() * (float) Math.PI;
+        float spread = (float) config.size / 8.0F;
+        int blobRadius = Mth.ceil(((float) config.size / 16.0F * 2.0F + 1.0F) / 2.0F);
+        double minX = origin.getX() + Math.sin(angle) * spread;
+        double maxX = origin.getX() - Math.sin(angle) * spread;
+        double minZ = origin.getZ() + Math.cos(angle) * spread;
+        double maxZ = origin.getZ() - Math.cos(angle) * spread;
+        double minY = origin.getY() + random.nextInt(3) - 2;
+        double maxY = origin.getY() + random.nextInt(3) - 2;
+        int x = origin.getX() - Mth.ceil(spread) - blobRadius;
+        int y = origin.getY() - 2 - blobRadius;
+        int z = origin.getZ() - Mth.ceil(spread) - blobRadius;
+        int width = 2 * (Mth.ceil(spread) + blobRadius);
+        int height = 2 * (2 + blobRadius);
+
+        for (int columnX = x; columnX <= x + width; columnX++) {
+            for (int columnZ = z; columnZ <= z + width; columnZ++) {
+                if (y <= level.getHeight(Heightmap.Types.OCEAN_FLOOR_WG, columnX, columnZ)) {
+                    return placeVein(level, random, config, minX, maxX, minZ, maxZ, minY, maxY,
+                        x, y, z, width, height);
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean placeVein(WorldGenLevel level, RandomSource random, OreConfiguration config,
+                              double minX, double maxX, double minZ, double maxZ, double minY, double maxY,
+                              int x, int y, int z, int width, int height) {
+        int size = config.size;
+        double[] blobs = new double[size * 4];
+
+        for (int i = 0; i < size; i++) {
+            float progress = (float) i / (float) size;
+            double blobX = Mth.lerp(progress, minX, maxX);
+            double blobY = Mth.lerp(progress, minY, maxY);
+            double blobZ = Mth.lerp(progress, minZ, maxZ);
+            double scale = random.nextDouble() * size / 16.0;
+            double radius = ((Mth.sin((float) Math.PI * progress) + 1.0F) * scale + 1.0) / 2.0;
+            blobs[i * 4] = blobX;
+            blobs[i * 4 + 1] = blobY;
+            blobs[i * 4 + 2] = blobZ;
+            blobs[i * 4 + 3] = radius;
+        }
+
+        for (int i = 0; i < size - 1; i++) {
+            if (blobs[i * 4 + 3] <= 0.0) {
+                continue;
+            }
+            for (int j = i + 1; j < size; j++) {
+                if (blobs[j * 4 + 3] <= 0.0) {
+                    continue;
+                }
+                double dx = blobs[i * 4] - blobs[j * 4];
+                double dy = blobs[i * 4 + 1] - blobs[j * 4 + 1];
+                double dz = blobs[i * 4 + 2] - blobs[j * 4 + 2];
+                double dr = blobs[i * 4 + 3] - blobs[j * 4 + 3];
+                if (dr * dr > dx * dx + dy * dy + dz * dz) {
+                    if (dr > 0.0) {
+                        blobs[j * 4 + 3] = -1.0;
+                    } else {
+                        blobs[i * 4 + 3] = -1.0;
+                    }
+                }
+            }
+        }
+
+        Candidates candidates = collectCandidates(level, blobs, size, x, y, z, width, height);
+        if (candidates.count == 0) {
+            return false;
+        }
+        return writeSections(level, random, config, candidates, x, y, z) > 0;
+    }
+
+    private static Candidates collectCandidates(WorldGenLevel level, double[] blobs, int size,
+                                                int x, int y, int z, int width, int height) {
+        BitSet visited = new BitSet(width * height * width);
+        Candidates candidates = new Candidates();
+        int sectionX = SectionPos.blockToSectionCoord(x);
+        int sectionY = SectionPos.blockToSectionCoord(y);
+        int sectionZ = SectionPos.blockToSectionCoord(z);
+
+        for (int i = 0; i < size; i++) {
+            double radius = blobs[i * 4 + 3];
+            if (radius < 0.0) {
+                continue;
+            }
+            double centerX = blobs[i * 4];
+            double centerY = blobs[i * 4 + 1];
+            double centerZ = blobs[i * 4 + 2];
+            int startX = Math.max(Mth.floor(centerX - radius), x);
+            int startY = Math.max(Mth.floor(centerY - radius), y);
+            int startZ = Math.max(Mth.floor(centerZ - radius), z);
+            int endX = Math.max(Mth.floor(centerX + radius), startX);
+            int endY = Math.max(Mth.floor(centerY + radius), startY);
+            int endZ = Math.max(Mth.floor(centerZ + radius), startZ);
+
+            for (int blockX = startX; blockX <= endX; blockX++) {
+                double u = (blockX + 0.5 - centerX) / radius;
+                if (u * u >= 1.0) {
+                    continue;
+                }
+                for (int blockY = startY; blockY <= endY; blockY++) {
+                    double v = (blockY + 0.5 - centerY) / radius;
+                    if (u * u + v * v >= 1.0) {
+                        continue;
+                    }
+                    for (int blockZ = startZ; blockZ <= endZ; blockZ++) {
+                        double w = (blockZ + 0.5 - centerZ) / radius;
+                        if (u * u + v * v + w * w >= 1.0 || level.isOutsideBuildHeight(blockY)) {
+                            continue;
+                        }
+                        int index = blockX - x + (blockY - y) * width + (blockZ - z) * width * height;
+                        if (visited.get(index)) {
+                            continue;
+                        }
+                        visited.set(index);
+
+                        long section = (SectionPos.blockToSectionCoord(blockX) - sectionX) * 64L
+                            + (SectionPos.blockToSectionCoord(blockY) - sectionY) * 8L
+                            + (SectionPos.blockToSectionCoord(blockZ) - sectionZ);
+                        candidates.add(section << (OFFSET_BITS * 3)
+                            | (long) (blockX - x) << (OFFSET_BITS * 2)
+                            | (long) (blockY - y) << OFFSET_BITS
+                            | (blockZ - z));
+                    }
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private static int writeSections(WorldGenLevel level, RandomSource random, OreConfiguration config,
+                                     Candidates candidates, int x, int y, int z) {
+        TargetMatcher matcher = new TargetMatcher(config.targetStates);
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        int placed = 0;
+        long[] packed = candidates.packed;
+        Arrays.sort(packed, 0, candidates.count);
+
+        try (BulkSectionAccess access = new BulkSectionAccess(level)) {
+            Function<BlockPos, BlockState> neighbours = access::getBlockState;
+            int start = 0;
+            while (start < candidates.count) {
+                long section = packed[start] >>> (OFFSET_BITS * 3);
+                int end = start + 1;
+                while (end < candidates.count && packed[end] >>> (OFFSET_BITS * 3) == section) {
+                    end++;
+                }
+
+                setPosition(pos, packed[start], x, y, z);
+                LevelChunkSection levelSection = level.ensureCanWrite(pos) ? access.getSection(pos) : null;
+                if (levelSection != null && matcher.mayMatch(levelSection)) {
+                    for (int i = start; i < end; i++) {
+                        setPosition(pos, packed[i], x, y, z);
+                        int localX = SectionPos.sectionRelative(pos.getX());
+                        int localY = SectionPos.sectionRelative(pos.getY());
+                        int localZ = SectionPos.sectionRelative(pos.getZ());
+                        BlockState state = levelSection.getBlockState(localX, localY, localZ);
+                        BlockState ore = matcher.select(state, neighbours, random, config, pos);
+                        if (ore != null) {
+                            levelSection.setBlockState(localX, localY, localZ, ore, false);
+                            placed++;
+                        }
+                    }
+                }
+                start = end;
+            }
+        }
+        return placed;
+    }
+
+    private static void setPosition(BlockPos.MutableBlockPos pos, long packed, int x, int y, int z) {
+        pos.set(
+            x + (int) (packed >>> (OFFSET_BITS * 2) & OFFSET_MASK),
+            y + (int) (packed >>> OFFSET_BITS & OFFSET_MASK),
+            z + (int) (packed & OFFSET_MASK));
+    }
+
+    private static boolean isDeterministic(RuleTest test) {
+        return test instanceof TagMatchTest || test instanceof BlockMatchTest || test instanceof BlockStateMatchTest;
+    }
+
+    private static boolean skipAirCheck(RandomSource random, float chance) {
+        if (chance <= 0.0F) {
+            return true;
+        }
+        return chance < 1.0F && random.nextFloat() >= chance;
+    }
+
+    /**
+     * Growable buffer of packed candidate positions: section ordinal, then x/y/z offsets from the vein origin.
+     */
+    private static final class Candidates {
+        private long[] packed = new long[64];
+        private int count;
+
+        void add(long value) {
+            if (count == packed.length) {
+                packed = Arrays.copyOf(packed, count * 2);
+            }
+            packed[count++] = value;
+        }
+    }
+
+    /**
+     * Resolves which target, if any, replaces a block state. When every rule ignores randomness the
+     * matching targets are memoised per state as a bitmask, in target order.
+     */
+    private static final class TargetMatcher {
+        private final List<OreConfiguration.TargetBlockState> targets;
+        private final Reference2IntOpenHashMap<BlockState> matches;
+
+        TargetMatcher(List<OreConfiguration.TargetBlockState> targets) {
+            this.targets = targets;
+            boolean deterministic = targets.size() <= MAX_MEMOISED_TARGETS;
+            for (OreConfiguration.TargetBlockState target : targets) {
+                deterministic &= isDeterministic(target.target);
+            }
+            if (deterministic) {
+                this.matches = new Reference2IntOpenHashMap<>();
+                this.matches.defaultReturnValue(UNKNOWN_STATE);
+            } else {
+                this.matches = null;
+            }
+        }
+
+        boolean mayMatch(LevelChunkSection section) {
+            return matches == null || section.maybeHas(state -> matchMask(state) != 0);
+        }
+
+        BlockState select(BlockState state, Function<BlockPos, BlockState> neighbours, RandomSource random,
+                          OreConfiguration config, BlockPos.MutableBlockPos pos) {
+            if (matches == null) {
+                for (OreConfiguration.TargetBlockState target : targets) {
+                    if (target.target.test(state, random) && airCheckPasses(neighbours, random, config, pos)) {
+                        return target.state;
+                    }
+                }
+                return null;
+            }
+
+            int mask = matchMask(state);
+            while (mask != 0) {
+                int index = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                if (airCheckPasses(neighbours, random, config, pos)) {
+                    return targets.get(index).state;
+                }
+            }
+            return null;
+        }
+
+        private int matchMask(BlockState state) {
+            int mask = matches.getInt(state);
+            if (mask == UNKNOWN_STATE) {
+                mask = 0;
+                for (int i = 0; i < targets.size(); i++) {
+                    if (targets.get(i).target.test(state, null)) {
+                        mask |= 1 << i;
+                    }
+                }
+                matches.put(state, mask);
+            }
+            return mask;
+        }
+
+        private static boolean airCheckPasses(Function<BlockPos, BlockState> neighbours, RandomSource random,
+                                              OreConfiguration config, BlockPos.MutableBlockPos pos) {
+            return skipAirCheck(random, config.discardChanceOnAirExposure) || !isAdjacentToAir(neighbours, pos);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.theexpanse.worldgen.feature;
+
+import com.theexpanse.TheExpanse;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.world.level.levelgen.feature.Feature;
+import net.minecraft.world.level.levelgen.feature.configurations.OreConfiguration;
+import net.neoforged.bus.api.IEventBus;
+import net.neoforged.neoforge.registries.DeferredHolder;
+import net.neoforged.neoforge.registries.DeferredRegister;
+
+public final class FeatureRegistry {
+    private FeatureRegistry() { }
+
+    public static final DeferredRegister<Feature<?>> FEATURES =
+            DeferredRegister.create(Registries.FEATURE, TheExpanse.MOD_ID);
+
+    // === Ore vein writer grouped by chunk section ===
+    public static final DeferredHolder<Feature<?>, Feature<OreConfiguration>> BULK_ORE =
+            FEATURES.register("bulk_ore", () -> new BulkOreFeature(OreConfiguration.CODEC));
+
+    // === Registration hook ===
+    public static void register(IEventBus modBus) {
+        FEATURES.register(modBus);
+    }
+}
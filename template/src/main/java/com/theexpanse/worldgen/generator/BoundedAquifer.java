@@ -0,0 +1,89 @@
+package com.theexpanse.worldgen.generator;
+
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.Aquifer;
+import net.minecraft.world.level.levelgen.DensityFunction;
+import net.minecraft.world.level.levelgen.NoiseChunk;
+
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+
+/**
+ * An aquifer that only runs the vanilla aquifer at or below {@code maxY}, and above it answers like a disabled
+ * aquifer: {@code null} (keep the solid block) for positive density, the global fluid or air otherwise.
+ *
+ * <p>Above the highest preliminary surface the vanilla aquifer can only ever produce that answer, yet it still
+ * locates and weighs the nearest aquifer centres for every air block. A block's nearest centres are at most 22
+ * blocks below it, and a centre more than 20 blocks above its column's preliminary surface takes the global
+ * fluid without sampling any noise, so {@link #AQUIFER_REACH} above the surface ceiling the two agree exactly.
+ */
+final class BoundedAquifer implements Aquifer {
+    static final int AQUIFER_REACH = 48;
+
+    private static final MethodHandle NOISE_CHUNK_AQUIFER_GETTER;
+    private static final MethodHandle NOISE_CHUNK_AQUIFER_SETTER;
+
+    static {
+        MethodHandle getter = null;
+        MethodHandle setter = null;
+        try {
+            Field field = NoiseChunk.class.getDeclaredField("aquifer");
+            field.setAccessible(true);
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(NoiseChunk.class, MethodHandles.lookup());
+            getter = lookup.unreflectGetter(field);
+            setter = lookup.unreflectSetter(field);
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            // Without access the noise chunk keeps its vanilla aquifer.
+        }
+        NOISE_CHUNK_AQUIFER_GETTER = getter;
+        NOISE_CHUNK_AQUIFER_SETTER = setter;
+    }
+
+    private final Aquifer aquifer;
+    private final Aquifer.FluidPicker fluidPicker;
+    private final int maxY;
+    private boolean delegated;
+
+    BoundedAquifer(Aquifer aquifer, Aquifer.FluidPicker fluidPicker, int maxY) {
+        this.aquifer = aquifer;
+        this.fluidPicker = fluidPicker;
+        this.maxY = maxY;
+    }
+
+    /**
+     * Replaces {@code noiseChunk}'s aquifer with a bounded one, in place, and returns the noise chunk.
+     */
+    static NoiseChunk install(NoiseChunk noiseChunk, Aquifer.FluidPicker fluidPicker, int maxY) {
+        if (NOISE_CHUNK_AQUIFER_GETTER == null || NOISE_CHUNK_AQUIFER_SETTER == null) {
+            return noiseChunk;
+        }
+        try {
+            Aquifer aquifer = (Aquifer) NOISE_CHUNK_AQUIFER_GETTER.invoke(noiseChunk);
+            if (!(aquifer instanceof BoundedAquifer)) {
+                NOISE_CHUNK_AQUIFER_SETTER.invoke(noiseChunk, new BoundedAquifer(aquifer, fluidPicker, maxY));
+            }
+        } catch (Throwable throwable) {
+            throw new IllegalStateException("Failed to bound the aquifer of " + noiseChunk, throwable);
+        }
+        return noiseChunk;
+    }
+
+    @Nullable
+    @Override
+    public BlockState computeSubstance(DensityFunction.FunctionContext context, double substance) {
+        int y = context.blockY();
+        if (y <= maxY) {
+            delegated = true;
+            return aquifer.computeSubstance(context, substance);
+        }
+        delegated = false;
+        return substance > 0.0D ? null : fluidPicker.computeFluid(context.blockX(), y, context.blockZ()).at(y);
+    }
+
+    @Override
+    public boolean shouldScheduleFluidUpdate() {
+        return delegated && aquifer.shouldScheduleFluidUpdate();
+    }
+}
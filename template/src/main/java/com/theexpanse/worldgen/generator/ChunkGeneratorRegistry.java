@@ -0,0 +1,25 @@
+package com.theexpanse.worldgen.generator;
+
+import com.mojang.serialization.MapCodec;
+import com.theexpanse.TheExpanse;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.neoforged.bus.api.IEventBus;
+import net.neoforged.neoforge.registries.DeferredHolder;
+import net.neoforged.neoforge.registries.DeferredRegister;
+
+public final class ChunkGeneratorRegistry {
+    private ChunkGeneratorRegistry() { }
+
+    public static final DeferredRegister<MapCodec<? extends ChunkGenerator>> CHUNK_GENERATORS =
+            DeferredRegister.create(Registries.CHUNK_GENERATOR, TheExpanse.MOD_ID);
+
+    // === Noise generator with height-bounded aquifers ===
+    public static final DeferredHolder<MapCodec<? extends ChunkGenerator>, MapCodec<ExpanseNoiseChunkGenerator>>
+            NOISE = CHUNK_GENERATORS.register("noise", () -> ExpanseNoiseChunkGenerator.CODEC);
+
+    // === Registration hook ===
+    public static void register(IEventBus modBus) {
+        CHUNK_GENERATORS.register(modBus);
+    }
+}
@@ -0,0 +1,203 @@
+package com.theexpanse.worldgen.generator;
+
+import com.theexpanse.ExpanseConfig;
+import com.theexpanse.TheExpanse;
+import net.minecraft.core.Holder;
+import net.minecraft.core.Registry;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.level.ChunkDataEvent;
+import net.neoforged.neoforge.server.ServerLifecycleHooks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Leaves all-air, single-biome sections out of saved chunks of {@code the_expanse:noise} dimensions.
+ *
+ * <p>Vanilla writes a {@code sections} entry for every one of the overworld's 143 sections, and most of them are
+ * sky: an air palette, a one-entry biome palette and nothing else. When {@code elideEmptySections} is enabled
+ * those entries are dropped on save and their section Ys are recorded per biome under {@link #ELIDED_TAG}.
+ * Vanilla's reader already fills missing sections with air, so on load only their biome has to be put back; the
+ * restored section is the same single-value air and biome containers the chunk was saved with.
+ *
+ * <p>Only entries with nothing but {@code Y}, a single-entry air {@code block_states} and a single-entry
+ * {@code biomes} are elided, so light data and anything another mod adds to a section are always kept. Loading
+ * does not depend on the setting: chunks saved with it restore after it is turned off, and chunks saved without
+ * it load as plain vanilla chunks.
+ */
+public final class EmptySectionElision {
+    static final String ELIDED_TAG = TheExpanse.id("elided_sections").toString();
+    private static final String SECTIONS = "sections";
+    private static final String Y = "Y";
+    private static final String BLOCK_STATES = "block_states";
+    private static final String BIOMES = "biomes";
+    private static final String PALETTE = "palette";
+    private static final String AIR = "minecraft:air";
+    private static final Set<String> EMPTY_SECTION_KEYS = Set.of(Y, BLOCK_STATES, BIOMES);
+    // Renamed after 1.21.1: registryOrThrow became lookupOrThrow, and getHolder became get.
+    private static final MethodHandle REGISTRY_OR_THROW =
+            findVirtual(RegistryAccess.class, "registryOrThrow", Registry.class, ResourceKey.class);
+    private static final MethodHandle LOOKUP_OR_THROW =
+            findVirtual(RegistryAccess.class, "lookupOrThrow", Registry.class, ResourceKey.class);
+    private static final MethodHandle GET_HOLDER =
+            findVirtual(Registry.class, "getHolder", Optional.class, ResourceKey.class);
+    private static final MethodHandle GET = findVirtual(Registry.class, "get", Optional.class, ResourceKey.class);
+
+    private EmptySectionElision() {
+    }
+
+    public static void register() {
+        NeoForge.EVENT_BUS.addListener(EmptySectionElision::onChunkSave);
+        NeoForge.EVENT_BUS.addListener(EmptySectionElision::onChunkLoad);
+    }
+
+    private static void onChunkSave(ChunkDataEvent.Save event) {
+        if (ExpanseConfig.elideEmptySections() && event.getLevel() instanceof ServerLevel level
+                && level.getChunkSource().getGenerator() instanceof ExpanseNoiseChunkGenerator) {
+            elide(event.getData());
+        }
+    }
+
+    private static void onChunkLoad(ChunkDataEvent.Load event) {
+        if (!event.getData().contains(ELIDED_TAG, Tag.TAG_COMPOUND)) {
+            return;
+        }
+        RegistryAccess registries = event.getLevel() != null ? event.getLevel().registryAccess()
+                : ServerLifecycleHooks.getCurrentServer().registryAccess();
+        restore(event.getChunk(), elided(event.getData()), biomeRegistry(registries));
+    }
+
+    /**
+     * Removes the elidable entries from {@code chunkTag}'s sections and records them under {@link #ELIDED_TAG}.
+     * Returns the number of sections removed.
+     */
+    static int elide(CompoundTag chunkTag) {
+        ListTag sections = chunkTag.getList(SECTIONS, Tag.TAG_COMPOUND);
+        Map<String, int[]> byBiome = new TreeMap<>();
+        int removed = 0;
+        for (int i = sections.size() - 1; i >= 0; i--) {
+            CompoundTag section = sections.getCompound(i);
+            String biome = emptySectionBiome(section);
+            if (biome == null) {
+                continue;
+            }
+            int[] ys = byBiome.getOrDefault(biome, new int[0]);
+            int[] grown = new int[ys.length + 1];
+            System.arraycopy(ys, 0, grown, 1, ys.length);
+            grown[0] = section.getByte(Y);
+            byBiome.put(biome, grown);
+            sections.remove(i);
+            removed++;
+        }
+        if (removed > 0) {
+            CompoundTag elided = new CompoundTag();
+            byBiome.forEach(elided::putIntArray);
+            chunkTag.put(ELIDED_TAG, elided);
+        }
+        return removed;
+    }
+
+    /** Section Y to biome id for every section {@link #elide} removed from {@code chunkTag}. */
+    static Map<Integer, String> elided(CompoundTag chunkTag) {
+        CompoundTag elided = chunkTag.getCompound(ELIDED_TAG);
+        Map<Integer, String> biomes = new TreeMap<>();
+        for (String biome : elided.getAllKeys()) {
+            for (int y : elided.getIntArray(biome)) {
+                biomes.put(y, biome);
+            }
+        }
+        return biomes;
+    }
+
+    /** Puts each elided section's biome back into {@code chunk}, skipping unknown biomes and out-of-range Ys. */
+    static void restore(ChunkAccess chunk, Map<Integer, String> elided, Registry<Biome> biomes) {
+        LevelChunkSection[] sections = chunk.getSections();
+        elided.forEach((sectionY, id) -> {
+            int index = chunk.getSectionIndexFromSectionY(sectionY);
+            ResourceLocation location = ResourceLocation.tryParse(id);
+            if (index < 0 || index >= sections.length || location == null) {
+                return;
+            }
+            // An unknown biome leaves vanilla's default in place, as a missing section would have.
+            Optional<Holder.Reference<Biome>> biome = holder(biomes, ResourceKey.create(Registries.BIOME, location));
+            biome.ifPresent(holder -> sections[index] = new LevelChunkSection(sections[index].getStates(),
+                    new PalettedContainer<>(biomes.asHolderIdMap(), holder, PalettedContainer.Strategy.SECTION_BIOMES)));
+        });
+    }
+
+    private static Registry<Biome> biomeRegistry(RegistryAccess registries) {
+        try {
+            if (LOOKUP_OR_THROW != null) {
+                return (Registry<Biome>) LOOKUP_OR_THROW.invoke(registries, Registries.BIOME);
+            }
+            if (REGISTRY_OR_THROW != null) {
+                return (Registry<Biome>) REGISTRY_OR_THROW.invoke(registries, Registries.BIOME);
+            }
+        } catch (Throwable throwable) {
+            throw new IllegalStateException("Failed to resolve biome registry", throwable);
+        }
+        throw new IllegalStateException("No compatible RegistryAccess lookup method is available");
+    }
+
+    private static Optional<Holder.Reference<Biome>> holder(Registry<Biome> biomes, ResourceKey<Biome> key) {
+        try {
+            if (GET != null) {
+                return (Optional<Holder.Reference<Biome>>) GET.invoke(biomes, key);
+            }
+            if (GET_HOLDER != null) {
+                return (Optional<Holder.Reference<Biome>>) GET_HOLDER.invoke(biomes, key);
+            }
+        } catch (Throwable throwable) {
+            throw new IllegalStateException("Failed to look up biome " + key.location(), throwable);
+        }
+        throw new IllegalStateException("No compatible Registry holder lookup method is available");
+    }
+
+    private static MethodHandle findVirtual(
+            Class<?> owner, String name, Class<?> returnType, Class<?>... parameterTypes) {
+        try {
+            return MethodHandles.lookup().findVirtual(owner, name, MethodType.methodType(returnType, parameterTypes));
+        } catch (NoSuchMethodException | IllegalAccessException ignored) {
+            return null;
+        }
+    }
+
+    /** The biome of an elidable section entry, or {@code null} if the entry has to be kept. */
+    private static String emptySectionBiome(CompoundTag section) {
+        if (!EMPTY_SECTION_KEYS.equals(section.getAllKeys())) {
+            return null;
+        }
+        CompoundTag states = section.getCompound(BLOCK_STATES);
+        CompoundTag biomes = section.getCompound(BIOMES);
+        if (!states.getAllKeys().equals(Set.of(PALETTE)) || !biomes.getAllKeys().equals(Set.of(PALETTE))) {
+            return null;
+        }
+        ListTag statePalette = states.getList(PALETTE, Tag.TAG_COMPOUND);
+        ListTag biomePalette = biomes.getList(PALETTE, Tag.TAG_STRING);
+        if (statePalette.size() != 1 || biomePalette.size() != 1) {
+            return null;
+        }
+        CompoundTag state = statePalette.getCompound(0);
+        if (state.size() != 1 || !AIR.equals(state.getString("Name"))) {
+            return null;
+        }
+        return biomePalette.getString(0);
+    }
+}
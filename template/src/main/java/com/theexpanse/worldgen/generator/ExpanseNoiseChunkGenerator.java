@@ -0,0 +1,350 @@
+package com.theexpanse.worldgen.generator;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.Sets;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.MapCodec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import com.theexpanse.ExpanseConfig;
+import com.theexpanse.worldgen.carver.SettledFluids;
+import com.theexpanse.worldgen.density.DensityBounds;
+import net.minecraft.Util;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.core.SectionPos;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.StructureManager;
+import net.minecraft.world.level.WorldGenLevel;
+import net.minecraft.world.level.biome.BiomeSource;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.levelgen.Aquifer;
+import net.minecraft.world.level.levelgen.Beardifier;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.levelgen.NoiseBasedChunkGenerator;
+import net.minecraft.world.level.levelgen.NoiseChunk;
+import net.minecraft.world.level.levelgen.NoiseGeneratorSettings;
+import net.minecraft.world.level.levelgen.NoiseSettings;
+import net.minecraft.world.level.levelgen.RandomState;
+import net.minecraft.world.level.levelgen.blending.Blender;
+import net.minecraft.world.level.levelgen.structure.StructureStart;
+import net.minecraft.world.level.levelgen.structure.TerrainAdjustment;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * {@code the_expanse:noise}: vanilla's noise chunk generator, with the aquifer bounded to the Y window where it
+ * can matter.
+ *
+ * <p>The window's top is derived from the noise settings: the highest value the router's
+ * {@code preliminary_surface_level} can take plus {@link BoundedAquifer#AQUIFER_REACH}. Above it, blocks get
+ * exactly what the vanilla aquifer would give them without its per-block grid search; in The Expanse's
+ * overworld that is the 1600-odd air blocks per column above the terrain. Set {@code bounded_aquifers} to
+ * {@code false} to run the vanilla aquifer everywhere.
+ *
+ * <p>With {@code clipNoiseFill} enabled, the noise fill also stops at the chunk's fill ceiling: the lowest
+ * section boundary above which every block is air. That is where the router's {@code final_density} is bounded
+ * to at most zero (see {@link DensityBounds}), above the sea level, the aquifer's grid and the reach of any
+ * terrain-adapting structure. The vanilla fill would only write air there, which is what the unfilled sections
+ * already hold, so the chunk comes out identical while the interpolator skips everything above. Chunks that
+ * blend with old terrain are filled in full.
+ *
+ * <p>The bounded aquifer is installed by creating the chunk's {@link NoiseChunk} ahead of the vanilla stages
+ * that would otherwise create it; they then reuse it.
+ */
+public class ExpanseNoiseChunkGenerator extends NoiseBasedChunkGenerator {
+    public static final MapCodec<ExpanseNoiseChunkGenerator> CODEC = RecordCodecBuilder.mapCodec(
+            instance -> instance.group(
+                    BiomeSource.CODEC.fieldOf("biome_source").forGetter(ChunkGenerator::getBiomeSource),
+                    NoiseGeneratorSettings.CODEC.fieldOf("settings")
+                            .forGetter(NoiseBasedChunkGenerator::generatorSettings),
+                    Codec.BOOL.optionalFieldOf("bounded_aquifers", true)
+                            .forGetter(generator -> generator.boundedAquifers)
+            ).apply(instance, instance.stable(ExpanseNoiseChunkGenerator::new)));
+
+    private static final int UNBOUNDED = Integer.MAX_VALUE;
+    /** How far above the bounded aquifer's ceiling its grid of centres has to reach. */
+    private static final int AQUIFER_GRID_MARGIN = 24;
+    /** How far past a structure piece the beardifier can add density. */
+    private static final int BEARDIFIER_REACH = 12;
+    private static final BlockState AIR = Blocks.AIR.defaultBlockState();
+    private static final MethodHandle GLOBAL_FLUID_PICKER = findGlobalFluidPicker();
+
+    private final boolean boundedAquifers;
+    private final Supplier<Integer> aquiferCeiling;
+    private volatile TerrainCeiling terrainCeiling;
+    /** Fill ceiling of each noise chunk built clipped, until its fill runs. */
+    private final Map<ChunkAccess, Integer> clippedNoiseChunks = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public ExpanseNoiseChunkGenerator(BiomeSource biomeSource, Holder<NoiseGeneratorSettings> settings,
+            boolean boundedAquifers) {
+        super(biomeSource, settings);
+        this.boundedAquifers = boundedAquifers;
+        // Settings holders may still be unbound while registries load, like vanilla's own fluid picker.
+        this.aquiferCeiling = Suppliers.memoize(() -> aquiferCeiling(settings.value()));
+    }
+
+    @Override
+    protected MapCodec<? extends ChunkGenerator> codec() {
+        return CODEC;
+    }
+
+    @Override
+    public CompletableFuture<ChunkAccess> createBiomes(RandomState randomState, Blender blender,
+            StructureManager structureManager, ChunkAccess chunk) {
+        prepareNoiseChunk(chunk, randomState, blender, structureManager);
+        return super.createBiomes(randomState, blender, structureManager, chunk);
+    }
+
+    @Override
+    public CompletableFuture<ChunkAccess> fillFromNoise(Blender blender, RandomState randomState,
+            StructureManager structureManager, ChunkAccess chunk) {
+        NoiseChunk noiseChunk = prepareNoiseChunk(chunk, randomState, blender, structureManager);
+        // The ceiling the noise chunk was built with; a noise chunk we did not build covers the full height.
+        Integer clipped = clippedNoiseChunks.remove(chunk);
+        int fillCeiling = clipped != null ? clipped : UNBOUNDED;
+        if (noiseChunk == null || fillCeiling == UNBOUNDED) {
+            return super.fillFromNoise(blender, randomState, structureManager, chunk);
+        }
+        NoiseSettings noiseSettings = noiseSettings(chunk, fillCeiling);
+        return CompletableFuture.supplyAsync(Util.wrapThreadWithTaskName("wgen_fill_noise",
+                () -> fillBelowCeiling(chunk, noiseChunk, noiseSettings)), Util.backgroundExecutor());
+    }
+
+    /** Settles the fluids the chunk's carvers left, now that all of them have run; see {@link SettledFluids}. */
+    @Override
+    public void applyBiomeDecoration(WorldGenLevel level, ChunkAccess chunk, StructureManager structureManager) {
+        SettledFluids.settle(chunk);
+        super.applyBiomeDecoration(level, chunk, structureManager);
+    }
+
+    /** The highest Y at which the vanilla aquifer runs, or {@link Integer#MAX_VALUE} when it runs everywhere. */
+    public int aquiferCeiling() {
+        return aquiferCeiling.get();
+    }
+
+    /**
+     * The Y from which this chunk's noise fill can be skipped, or {@link Integer#MAX_VALUE} when it is filled to
+     * the top. Read once, when the chunk's noise chunk is built; the fill then uses the height that noise chunk
+     * was built with, even if {@code clipNoiseFill} is reloaded in between.
+     */
+    public int fillCeiling(ChunkAccess chunk, RandomState randomState, Blender blender,
+            StructureManager structureManager) {
+        if (!ExpanseConfig.clipNoiseFill() || blender != Blender.empty()) {
+            return UNBOUNDED;
+        }
+        int ceiling = terrainCeiling(randomState);
+        if (ceiling == UNBOUNDED) {
+            return UNBOUNDED;
+        }
+        NoiseSettings noiseSettings = generatorSettings().value().noiseSettings()
+                .clampToHeightAccessor(chunk.getHeightAccessorForGeneration());
+        // The same starts the chunk's beardifier is built from.
+        for (StructureStart start : structureManager.startsForStructure(chunk.getPos(),
+                structure -> structure.terrainAdaptation() != TerrainAdjustment.NONE)) {
+            ceiling = Math.max(ceiling, sectionAbove(start.getBoundingBox().maxY() + BEARDIFIER_REACH + 1,
+                    noiseSettings.minY()));
+        }
+        return ceiling < noiseSettings.minY() + noiseSettings.height() ? ceiling : UNBOUNDED;
+    }
+
+    private NoiseChunk prepareNoiseChunk(ChunkAccess chunk, RandomState randomState, Blender blender,
+            StructureManager structureManager) {
+        int ceiling = aquiferCeiling();
+        if (ceiling == UNBOUNDED) {
+            return null;
+        }
+        Aquifer.FluidPicker fluidPicker = globalFluidPicker();
+        if (fluidPicker == null) {
+            return null;
+        }
+        // A noise chunk kept from an earlier stage is bounded in place; otherwise create it the way
+        // NoiseChunk.forChunk does, over the clipped height, and remember that height for the fill.
+        return BoundedAquifer.install(chunk.getOrCreateNoiseChunk(target -> {
+            int fillCeiling = fillCeiling(target, randomState, blender, structureManager);
+            NoiseSettings noiseSettings = noiseSettings(target, fillCeiling);
+            if (fillCeiling != UNBOUNDED) {
+                clippedNoiseChunks.put(target, fillCeiling);
+            }
+            return new NoiseChunk(SectionPos.SECTION_SIZE / noiseSettings.getCellWidth(), randomState,
+                    target.getPos().getMinBlockX(), target.getPos().getMinBlockZ(), noiseSettings,
+                    Beardifier.forStructuresInChunk(structureManager, target.getPos()), generatorSettings().value(),
+                    fluidPicker, blender);
+        }), fluidPicker, ceiling);
+    }
+
+    private NoiseSettings noiseSettings(ChunkAccess chunk, int fillCeiling) {
+        NoiseSettings full = generatorSettings().value().noiseSettings()
+                .clampToHeightAccessor(chunk.getHeightAccessorForGeneration());
+        if (fillCeiling >= full.minY() + full.height()) {
+            return full;
+        }
+        return new NoiseSettings(full.minY(), fillCeiling - full.minY(), full.noiseSizeHorizontal(),
+                full.noiseSizeVertical());
+    }
+
+    /** Vanilla's noise fill, over the cells of {@code noiseSettings} only. */
+    private ChunkAccess fillBelowCeiling(ChunkAccess chunk, NoiseChunk noiseChunk, NoiseSettings noiseSettings) {
+        int cellHeight = noiseSettings.getCellHeight();
+        int minCellY = Mth.floorDiv(noiseSettings.minY(), cellHeight);
+        int cellCountY = Mth.floorDiv(noiseSettings.height(), cellHeight);
+        int topSection = chunk.getSectionIndex(cellCountY * cellHeight - 1 + noiseSettings.minY());
+        int bottomSection = chunk.getSectionIndex(noiseSettings.minY());
+        Set<LevelChunkSection> sections = Sets.newHashSet();
+        for (int index = topSection; index >= bottomSection; index--) {
+            LevelChunkSection section = chunk.getSection(index);
+            section.acquire();
+            sections.add(section);
+        }
+        try {
+            fillCells(chunk, noiseChunk, minCellY, cellCountY);
+        } finally {
+            for (LevelChunkSection section : sections) {
+                section.release();
+            }
+        }
+        return chunk;
+    }
+
+    private void fillCells(ChunkAccess chunk, NoiseChunk noiseChunk, int minCellY, int cellCountY) {
+        BlockState defaultBlock = generatorSettings().value().defaultBlock();
+        Heightmap oceanFloor = chunk.getOrCreateHeightmapUnprimed(Heightmap.Types.OCEAN_FLOOR_WG);
+        Heightmap worldSurface = chunk.getOrCreateHeightmapUnprimed(Heightmap.Types.WORLD_SURFACE_WG);
+        ChunkPos chunkPos = chunk.getPos();
+        int minBlockX = chunkPos.getMinBlockX();
+        int minBlockZ = chunkPos.getMinBlockZ();
+        Aquifer aquifer = noiseChunk.aquifer();
+        noiseChunk.initializeForFirstCellX();
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        int cellWidth = noiseChunk.cellWidth();
+        int cellHeight = noiseChunk.cellHeight();
+        int cellCountXZ = SectionPos.SECTION_SIZE / cellWidth;
+
+        for (int cellX = 0; cellX < cellCountXZ; cellX++) {
+            noiseChunk.advanceCellX(cellX);
+            for (int cellZ = 0; cellZ < cellCountXZ; cellZ++) {
+                int sectionIndex = chunk.getSectionsCount() - 1;
+                LevelChunkSection section = chunk.getSection(sectionIndex);
+                for (int cellY = cellCountY - 1; cellY >= 0; cellY--) {
+                    noiseChunk.selectCellYZ(cellY, cellZ);
+                    for (int inCellY = cellHeight - 1; inCellY >= 0; inCellY--) {
+                        int y = (minCellY + cellY) * cellHeight + inCellY;
+                        int localY = y & 15;
+                        int index = chunk.getSectionIndex(y);
+                        if (sectionIndex != index) {
+                            sectionIndex = index;
+                            section = chunk.getSection(index);
+                        }
+                        noiseChunk.updateForY(y, (double) inCellY / (double) cellHeight);
+                        for (int inCellX = 0; inCellX < cellWidth; inCellX++) {
+                            int x = minBlockX + cellX * cellWidth + inCellX;
+                            int localX = x & 15;
+                            noiseChunk.updateForX(x, (double) inCellX / (double) cellWidth);
+                            for (int inCellZ = 0; inCellZ < cellWidth; inCellZ++) {
+                                int z = minBlockZ + cellZ * cellWidth + inCellZ;
+                                int localZ = z & 15;
+                                noiseChunk.updateForZ(z, (double) inCellZ / (double) cellWidth);
+                                BlockState state = noiseChunk.getInterpolatedState();
+                                if (state == null) {
+                                    state = defaultBlock;
+                                }
+                                if (state != AIR) {
+                                    section.setBlockState(localX, localY, localZ, state, false);
+                                    oceanFloor.update(localX, y, localZ, state);
+                                    worldSurface.update(localX, y, localZ, state);
+                                    if (aquifer.shouldScheduleFluidUpdate() && !state.getFluidState().isEmpty()) {
+                                        pos.set(x, y, z);
+                                        chunk.markPosForPostprocessing(pos);
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            noiseChunk.swapSlices();
+        }
+        noiseChunk.stopInterpolation();
+    }
+
+    /**
+     * The section boundary from which {@code final_density} is never positive and every non-solid block is air,
+     * or {@link Integer#MAX_VALUE}. Bounds are taken from the wired router, whose noises know their real ranges.
+     */
+    private int terrainCeiling(RandomState randomState) {
+        TerrainCeiling cached = terrainCeiling;
+        if (cached != null && cached.randomState() == randomState) {
+            return cached.y();
+        }
+        int y = terrainCeiling(generatorSettings().value(), randomState);
+        terrainCeiling = new TerrainCeiling(randomState, y);
+        return y;
+    }
+
+    private int terrainCeiling(NoiseGeneratorSettings settings, RandomState randomState) {
+        int aquiferCeiling = aquiferCeiling();
+        if (aquiferCeiling == UNBOUNDED) {
+            return UNBOUNDED;
+        }
+        NoiseSettings noiseSettings = settings.noiseSettings();
+        int top = noiseSettings.minY() + noiseSettings.height();
+        int terrain = DensityBounds.nonPositiveFrom(randomState.router().finalDensity(), noiseSettings.minY(),
+                top - 1, noiseSettings.getCellHeight());
+        // Below the sea level the fluid picker floods non-solid blocks, and the aquifer's grid must cover its ceiling.
+        int ceiling = Math.max(terrain, Math.max(settings.seaLevel(), aquiferCeiling + AQUIFER_GRID_MARGIN));
+        ceiling = sectionAbove(ceiling, noiseSettings.minY());
+        return ceiling < top ? ceiling : UNBOUNDED;
+    }
+
+    private static int sectionAbove(int y, int minY) {
+        return minY + Mth.positiveCeilDiv(y - minY, SectionPos.SECTION_SIZE) * SectionPos.SECTION_SIZE;
+    }
+
+    private int aquiferCeiling(NoiseGeneratorSettings settings) {
+        if (!boundedAquifers || !settings.isAquifersEnabled()) {
+            return UNBOUNDED;
+        }
+        double surfaceCeiling = settings.noiseRouter().preliminarySurfaceLevel().maxValue();
+        int top = settings.noiseSettings().minY() + settings.noiseSettings().height() - 1;
+        if (!Double.isFinite(surfaceCeiling) || surfaceCeiling + BoundedAquifer.AQUIFER_REACH >= top) {
+            return UNBOUNDED;
+        }
+        return Mth.ceil(surfaceCeiling) + BoundedAquifer.AQUIFER_REACH;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Aquifer.FluidPicker globalFluidPicker() {
+        if (GLOBAL_FLUID_PICKER == null) {
+            return null;
+        }
+        try {
+            return ((Supplier<Aquifer.FluidPicker>) GLOBAL_FLUID_PICKER.invoke(this)).get();
+        } catch (Throwable throwable) {
+            throw new IllegalStateException("Failed to read the global fluid picker", throwable);
+        }
+    }
+
+    private static MethodHandle findGlobalFluidPicker() {
+        try {
+            MethodHandles.Lookup lookup =
+                    MethodHandles.privateLookupIn(NoiseBasedChunkGenerator.class, MethodHandles.lookup());
+            return lookup.findGetter(NoiseBasedChunkGenerator.class, "globalFluidPicker", Supplier.class);
+        } catch (NoSuchFieldException | IllegalAccessException ignored) {
+            return null;
+        }
+    }
+
+    private record TerrainCeiling(RandomState randomState, int y) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.theexpanse.worldgen.placement;
+
+import com.theexpanse.TheExpanse;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.world.level.levelgen.placement.PlacementModifierType;
+import net.neoforged.bus.api.IEventBus;
+import net.neoforged.neoforge.registries.DeferredHolder;
+import net.neoforged.neoforge.registries.DeferredRegister;
+
+public final class PlacementRegistry {
+    private PlacementRegistry() { }
+
+    public static final DeferredRegister<PlacementModifierType<?>> PLACEMENT_MODIFIERS =
+            DeferredRegister.create(Registries.PLACEMENT_MODIFIER_TYPE, TheExpanse.MOD_ID);
+
+    // === Height placement restricted to chunk sections that contain host blocks ===
+    public static final DeferredHolder<PlacementModifierType<?>, PlacementModifierType<PopulatedSectionHeightPlacement>>
+            POPULATED_SECTION_HEIGHT = PLACEMENT_MODIFIERS.register(
+                    "populated_section_height", () -> () -> PopulatedSectionHeightPlacement.CODEC);
+
+    // === Registration hook ===
+    public static void register(IEventBus modBus) {
+        PLACEMENT_MODIFIERS.register(modBus);
+    }
+}
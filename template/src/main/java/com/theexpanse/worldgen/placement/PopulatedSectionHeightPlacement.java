@@ -0,0 +1,120 @@
+package com.theexpanse.worldgen.placement;
+
+import com.mojang.serialization.MapCodec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.tags.TagKey;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.levelgen.heightproviders.HeightProvider;
+import net.minecraft.world.level.levelgen.placement.PlacementContext;
+import net.minecraft.world.level.levelgen.placement.PlacementModifier;
+import net.minecraft.world.level.levelgen.placement.PlacementModifierType;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Height placement that drops attempts landing in chunk sections without any host block.
+ *
+ * <p>Y positions are drawn from {@code height} exactly like {@code minecraft:height_range}, so the number of
+ * attempts that reach rock is unchanged. Attempts that land in a section whose palette holds no block of the
+ * {@code host} tag (sky, open caves, other dimensions' filler) are discarded here instead of being handed to
+ * the feature. A chunk's sections are checked on the first attempt of each placed feature, so sections filled
+ * by features placed earlier in the chunk are seen.
+ */
+public class PopulatedSectionHeightPlacement extends PlacementModifier {
+    public static final MapCodec<PopulatedSectionHeightPlacement> CODEC = RecordCodecBuilder.mapCodec(instance ->
+        instance.group(
+            HeightProvider.CODEC.fieldOf("height").forGetter(PopulatedSectionHeightPlacement::height),
+            TagKey.codec(Registries.BLOCK).fieldOf("host").forGetter(PopulatedSectionHeightPlacement::host)
+        ).apply(instance, PopulatedSectionHeightPlacement::new));
+
+    private static final ThreadLocal<PopulatedSections> LAST_CHUNK = ThreadLocal.withInitial(PopulatedSections::new);
+
+    private final HeightProvider height;
+    private final TagKey<Block> host;
+
+    public PopulatedSectionHeightPlacement(HeightProvider height, TagKey<Block> host) {
+        this.height = height;
+        this.host = host;
+    }
+
+    public HeightProvider height() {
+        return height;
+    }
+
+    public TagKey<Block> host() {
+        return host;
+    }
+
+    public PopulatedSectionHeightPlacement withHeight(HeightProvider height) {
+        return new PopulatedSectionHeightPlacement(height, host);
+    }
+
+    @Override
+    public Stream<BlockPos> getPositions(PlacementContext context, RandomSource random, BlockPos pos) {
+        int y = height.sample(random, context);
+        ChunkAccess chunk = context.getLevel().getChunk(pos);
+        if (!LAST_CHUNK.get().contains(context, chunk, host, y)) {
+            return Stream.empty();
+        }
+        return Stream.of(pos.atY(y));
+    }
+
+    @Override
+    public PlacementModifierType<?> type() {
+        return PlacementRegistry.POPULATED_SECTION_HEIGHT.get();
+    }
+
+    /**
+     * Per-thread bitmap of the sections that may hold a host block, for the chunk the current placed feature is
+     * decorating. Vanilla builds one placement context per placed feature and chunk, so a new context means
+     * earlier features may have changed the chunk.
+     */
+    private static final class PopulatedSections {
+        private WeakReference<PlacementContext> context = new WeakReference<>(null);
+        private WeakReference<ChunkAccess> chunk = new WeakReference<>(null);
+        private TagKey<Block> host;
+        private long[] populated = new long[0];
+        private int sectionCount;
+
+        boolean contains(PlacementContext context, ChunkAccess chunk, TagKey<Block> host, int y) {
+            if (this.context.get() != context || this.chunk.get() != chunk || !host.equals(this.host)) {
+                rebuild(context, chunk, host);
+            }
+
+            int index = chunk.getSectionIndex(y);
+            if (index < 0 || index >= sectionCount) {
+                return false;
+            }
+            return (populated[index >> 6] & (1L << index)) != 0L;
+        }
+
+        private void rebuild(PlacementContext context, ChunkAccess chunk, TagKey<Block> host) {
+            LevelChunkSection[] sections = chunk.getSections();
+            int words = (sections.length + 63) >> 6;
+            if (populated.length < words) {
+                populated = new long[words];
+            } else {
+                Arrays.fill(populated, 0L);
+            }
+
+            for (int index = 0; index < sections.length; index++) {
+                LevelChunkSection section = sections[index];
+                if (!section.hasOnlyAir() && section.maybeHas(state -> state.is(host))) {
+                    populated[index >> 6] |= 1L << index;
+                }
+            }
+
+            this.context = new WeakReference<>(context);
+            this.chunk = new WeakReference<>(chunk);
+            this.host = host;
+            this.sectionCount = sections.length;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.theexpanse.worldgen.surface;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.Dynamic;
+import com.mojang.serialization.JsonOps;
+import com.mojang.serialization.MapCodec;
+import net.minecraft.core.Holder;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.util.KeyDispatchDataCodec;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.SurfaceRules;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code the_expanse:compiled}: runs {@code rule} as a table of per-biome rules compiled when the noise settings
+ * are loaded.
+ *
+ * <p>Vanilla interprets the whole surface rule for every surface block, re-testing the biome at each of the
+ * dozens of biome conditions on the way. Here {@link SurfaceRuleCompiler} specialises the rule once per biome it
+ * names, plus once for every other biome, and each block only runs the specialisation for its own biome. Biomes
+ * whose specialisations come out identical share one. A biome in which no branch can apply gets no rule source at
+ * all, so every variant that exists is a plain vanilla rule that serialises through the normal dispatch.
+ */
+public final class CompiledSurfaceRuleSource implements SurfaceRules.RuleSource {
+    public static final MapCodec<CompiledSurfaceRuleSource> DATA_CODEC = Codec.PASSTHROUGH.fieldOf("rule")
+            .flatXmap(rule -> compile(rule.convert(JsonOps.INSTANCE).getValue()),
+                    source -> DataResult.success(new Dynamic<>(JsonOps.INSTANCE, source.rule)));
+    public static final KeyDispatchDataCodec<CompiledSurfaceRuleSource> CODEC = KeyDispatchDataCodec.of(DATA_CODEC);
+    private static final SurfaceRules.SurfaceRule NEVER = (x, y, z) -> null;
+
+    private final JsonElement rule;
+    private final Map<ResourceKey<Biome>, Integer> variantByBiome;
+    // A null variant never applies.
+    private final SurfaceRules.RuleSource[] variants;
+    private final int otherBiomes;
+
+    private CompiledSurfaceRuleSource(JsonElement rule, Map<ResourceKey<Biome>, Integer> variantByBiome,
+            SurfaceRules.RuleSource[] variants, int otherBiomes) {
+        this.rule = rule;
+        this.variantByBiome = variantByBiome;
+        this.variants = variants;
+        this.otherBiomes = otherBiomes;
+    }
+
+    static DataResult<CompiledSurfaceRuleSource> compile(JsonElement rule) {
+        Map<String, Integer> variantByJson = new LinkedHashMap<>();
+        List<SurfaceRules.RuleSource> variants = new ArrayList<>();
+        Map<ResourceKey<Biome>, Integer> variantByBiome = new IdentityHashMap<>();
+        try {
+            for (String biome : SurfaceRuleCompiler.biomes(rule)) {
+                int variant = variant(SurfaceRuleCompiler.specialize(rule, biome), variantByJson, variants);
+                variantByBiome.put(ResourceKey.create(Registries.BIOME, ResourceLocation.parse(biome)), variant);
+            }
+            int otherBiomes = variant(SurfaceRuleCompiler.specialize(rule, null), variantByJson, variants);
+            return DataResult.success(new CompiledSurfaceRuleSource(rule, Map.copyOf(variantByBiome),
+                    variants.toArray(SurfaceRules.RuleSource[]::new), otherBiomes));
+        } catch (IllegalStateException exception) {
+            return DataResult.error(() -> "Failed to compile surface rule: " + exception.getMessage());
+        }
+    }
+
+    private static int variant(@Nullable JsonElement specialized, Map<String, Integer> variantByJson,
+            List<SurfaceRules.RuleSource> variants) {
+        JsonElement json = specialized != null ? specialized : JsonNull.INSTANCE;
+        Integer existing = variantByJson.get(json.toString());
+        if (existing != null) {
+            return existing;
+        }
+        SurfaceRules.RuleSource source = specialized == null ? null
+                : SurfaceRules.RuleSource.CODEC.parse(JsonOps.INSTANCE, specialized).getOrThrow(IllegalStateException::new);
+        variants.add(source);
+        variantByJson.put(json.toString(), variants.size() - 1);
+        return variants.size() - 1;
+    }
+
+    /** Number of distinct specialisations, including the one for biomes the rule does not name. */
+    public int variantCount() {
+        return variants.length;
+    }
+
+    @Override
+    public SurfaceRules.SurfaceRule apply(SurfaceRules.Context context) {
+        return new BiomeTableRule(context);
+    }
+
+    @Override
+    public KeyDispatchDataCodec<? extends SurfaceRules.RuleSource> codec() {
+        return CODEC;
+    }
+
+    /** Picks the current block's specialisation; each is applied to the chunk's context on first use. */
+    private final class BiomeTableRule implements SurfaceRules.SurfaceRule {
+        private final SurfaceRules.Context context;
+        private final SurfaceRules.SurfaceRule[] rules = new SurfaceRules.SurfaceRule[variants.length];
+        private Holder<Biome> lastBiome;
+        private SurfaceRules.SurfaceRule lastRule;
+
+        BiomeTableRule(SurfaceRules.Context context) {
+            this.context = context;
+        }
+
+        @Nullable
+        @Override
+        public BlockState tryApply(int x, int y, int z) {
+            Holder<Biome> biome = context.biome.get();
+            if (biome != lastBiome) {
+                int variant = biome.unwrapKey().map(key -> variantByBiome.getOrDefault(key, otherBiomes))
+                        .orElse(otherBiomes);
+                SurfaceRules.SurfaceRule rule = rules[variant];
+                if (rule == null) {
+                    rule = variants[variant] != null ? variants[variant].apply(context) : NEVER;
+                    rules[variant] = rule;
+                }
+                lastBiome = biome;
+                lastRule = rule;
+            }
+            return lastRule.tryApply(x, y, z);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.theexpanse.worldgen.surface;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Partially evaluates a surface rule, in its JSON form, for one biome.
+ *
+ * <p>Every {@code minecraft:biome} condition is decided up front, so conditions on it fold away, branches that
+ * can no longer apply are dropped, nested sequences are flattened and anything after a rule that always applies
+ * (a block or the badlands bands) is cut. Every other condition is kept, in its original place and order, so
+ * the specialised rule picks the same block as the original for that biome in every column. That includes the
+ * order in which noise, Y and stone depth checks run, since vanilla already evaluates each of them at most once
+ * per block through its lazy conditions.
+ *
+ * <p>Rule and condition types this class does not know are kept as they are.
+ */
+final class SurfaceRuleCompiler {
+    private static final String BIOME = "minecraft:biome";
+    private static final String NOT = "minecraft:not";
+    private static final String CONDITION = "minecraft:condition";
+    private static final String SEQUENCE = "minecraft:sequence";
+    private static final String BLOCK = "minecraft:block";
+    private static final String BANDLANDS = "minecraft:bandlands";
+
+    // Identity markers for conditions that folded to a constant.
+    private static final JsonObject ALWAYS = new JsonObject();
+    private static final JsonObject NEVER = new JsonObject();
+
+    private SurfaceRuleCompiler() {
+    }
+
+    /** Every biome id named by a {@code minecraft:biome} condition in {@code rule}, namespaced. */
+    static Set<String> biomes(JsonElement rule) {
+        Set<String> biomes = new TreeSet<>();
+        collectBiomes(rule, biomes);
+        return biomes;
+    }
+
+    /**
+     * {@code rule} specialised for {@code biome}, or {@code null} when it can never apply there. A {@code null}
+     * biome stands for every biome the rule does not name, for which all biome conditions are false.
+     */
+    static JsonElement specialize(JsonElement rule, String biome) {
+        if (!rule.isJsonObject()) {
+            return rule;
+        }
+        JsonObject object = rule.getAsJsonObject();
+        String type = type(object);
+        if (CONDITION.equals(type)) {
+            JsonElement condition = fold(object.get("if_true"), biome);
+            if (condition == NEVER) {
+                return null;
+            }
+            JsonElement then = specialize(object.get("then_run"), biome);
+            if (then == null || condition == ALWAYS) {
+                return then;
+            }
+            JsonObject specialized = new JsonObject();
+            specialized.addProperty("type", CONDITION);
+            specialized.add("if_true", condition);
+            specialized.add("then_run", then);
+            return specialized;
+        }
+        if (SEQUENCE.equals(type)) {
+            JsonArray sequence = new JsonArray();
+            appendSequence(object.getAsJsonArray("sequence"), biome, sequence);
+            if (sequence.isEmpty()) {
+                return null;
+            }
+            if (sequence.size() == 1) {
+                return sequence.get(0);
+            }
+            JsonObject specialized = new JsonObject();
+            specialized.addProperty("type", SEQUENCE);
+            specialized.add("sequence", sequence);
+            return specialized;
+        }
+        return rule;
+    }
+
+    /** Appends the specialised entries of {@code rules}; returns whether the last one always applies. */
+    private static boolean appendSequence(JsonArray rules, String biome, JsonArray out) {
+        for (JsonElement child : rules) {
+            JsonElement specialized = specialize(child, biome);
+            if (specialized == null) {
+                continue;
+            }
+            boolean terminal;
+            if (specialized.isJsonObject() && SEQUENCE.equals(type(specialized.getAsJsonObject()))) {
+                terminal = appendSequence(specialized.getAsJsonObject().getAsJsonArray("sequence"), biome, out);
+            } else {
+                out.add(specialized);
+                terminal = alwaysApplies(specialized);
+            }
+            if (terminal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean alwaysApplies(JsonElement rule) {
+        if (!rule.isJsonObject()) {
+            return false;
+        }
+        String type = type(rule.getAsJsonObject());
+        return BLOCK.equals(type) || BANDLANDS.equals(type);
+    }
+
+    private static JsonElement fold(JsonElement condition, String biome) {
+        if (!condition.isJsonObject()) {
+            return condition;
+        }
+        JsonObject object = condition.getAsJsonObject();
+        String type = type(object);
+        if (BIOME.equals(type)) {
+            return biome != null && names(object.get("biome_is"), biome) ? ALWAYS : NEVER;
+        }
+        if (NOT.equals(type)) {
+            JsonElement inverted = fold(object.get("invert"), biome);
+            if (inverted == ALWAYS) {
+                return NEVER;
+            }
+            if (inverted == NEVER) {
+                return ALWAYS;
+            }
+            JsonObject specialized = new JsonObject();
+            specialized.addProperty("type", NOT);
+            specialized.add("invert", inverted);
+            return specialized;
+        }
+        return condition;
+    }
+
+    private static boolean names(JsonElement biomes, String biome) {
+        if (biomes.isJsonArray()) {
+            for (JsonElement entry : biomes.getAsJsonArray()) {
+                if (biome.equals(namespaced(entry.getAsString()))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return biome.equals(namespaced(biomes.getAsString()));
+    }
+
+    private static void collectBiomes(JsonElement element, Set<String> biomes) {
+        if (element.isJsonArray()) {
+            for (JsonElement child : element.getAsJsonArray()) {
+                collectBiomes(child, biomes);
+            }
+            return;
+        }
+        if (!element.isJsonObject()) {
+            return;
+        }
+        JsonObject object = element.getAsJsonObject();
+        if (BIOME.equals(type(object))) {
+            JsonElement names = object.get("biome_is");
+            if (names.isJsonArray()) {
+                names.getAsJsonArray().forEach(name -> biomes.add(namespaced(name.getAsString())));
+            } else {
+                biomes.add(namespaced(names.getAsString()));
+            }
+            return;
+        }
+        for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+            collectBiomes(entry.getValue(), biomes);
+        }
+    }
+
+    static String type(JsonObject object) {
+        JsonElement type = object.get("type");
+        return type != null && type.isJsonPrimitive() ? namespaced(type.getAsString()) : "";
+    }
+
+    static String namespaced(String id) {
+        return id.indexOf(':') >= 0 ? id : "minecraft:" + id;
+    }
+}
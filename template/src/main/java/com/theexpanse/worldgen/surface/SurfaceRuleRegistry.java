@@ -0,0 +1,25 @@
+package com.theexpanse.worldgen.surface;
+
+import com.mojang.serialization.MapCodec;
+import com.theexpanse.TheExpanse;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.world.level.levelgen.SurfaceRules;
+import net.neoforged.bus.api.IEventBus;
+import net.neoforged.neoforge.registries.DeferredHolder;
+import net.neoforged.neoforge.registries.DeferredRegister;
+
+public final class SurfaceRuleRegistry {
+    private SurfaceRuleRegistry() { }
+
+    public static final DeferredRegister<MapCodec<? extends SurfaceRules.RuleSource>> RULE_SOURCES =
+            DeferredRegister.create(Registries.MATERIAL_RULE, TheExpanse.MOD_ID);
+
+    // === Surface rule specialised per biome at load ===
+    public static final DeferredHolder<MapCodec<? extends SurfaceRules.RuleSource>, MapCodec<CompiledSurfaceRuleSource>>
+            COMPILED = RULE_SOURCES.register("compiled", () -> CompiledSurfaceRuleSource.DATA_CODEC);
+
+    // === Registration hook ===
+    public static void register(IEventBus modBus) {
+        RULE_SOURCES.register(modBus);
+    }
+}
@@ -1,9 +0,0 @@
-package net.minecraft.world.level.levelgen.carver;
-
-/**
- * Placeholder for removed class in 1.21.x.
- * Keeps mappings compatible for compilation.
- */
-public class CarvingMask {
-    // No contents needed
-}
@@ -0,0 +1,25 @@
+package com.theexpanse.worldgen;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Bootstraps Minecraft's built-in registries before a test class runs.
+ *
+ * <p>The test classpath always carries Minecraft, so a bootstrap failure is a broken build and fails every class
+ * that uses this extension instead of skipping it.
+ */
+public final class MinecraftBootstrap implements BeforeAllCallback {
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        bootstrap();
+    }
+
+    /** Bootstraps once per JVM; later calls return immediately. */
+    public static synchronized void bootstrap() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+    }
+}
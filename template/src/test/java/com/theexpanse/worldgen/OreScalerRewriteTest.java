@@ -0,0 +1,76 @@
+package com.theexpanse.worldgen;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.JsonOps;
+import net.minecraft.world.level.levelgen.placement.HeightRangePlacement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@ExtendWith(MinecraftBootstrap.class)
+class OreScalerRewriteTest {
+    private static final int FEATURE_COUNT = 500;
+    private static final int SHARED_PROVIDERS = 60;
+    static final String[] PROVIDER_TEMPLATES = {
+        "{\"type\":\"minecraft:uniform\",\"min_inclusive\":{\"absolute\":%d},\"max_inclusive\":{\"absolute\":%d}}",
+        "{\"type\":\"minecraft:trapezoid\",\"min_inclusive\":{\"above_bottom\":%d},"
+            + "\"max_inclusive\":{\"below_top\":%d},\"plateau\":4}",
+        "{\"type\":\"minecraft:biased_to_bottom\",\"min_inclusive\":{\"absolute\":%d},"
+            + "\"max_inclusive\":{\"absolute\":%d},\"inner\":2}",
+        "{\"type\":\"minecraft:very_biased_to_bottom\",\"min_inclusive\":{\"above_bottom\":%d},"
+            + "\"max_inclusive\":{\"absolute\":%d},\"inner\":1}",
+        "{\"type\":\"minecraft:constant\",\"value\":{\"absolute\":%d}}",
+        "{\"type\":\"minecraft:weighted_list\",\"distribution\":[{\"weight\":3,\"data\":{\"type\":\"minecraft:uniform\","
+            + "\"min_inclusive\":{\"absolute\":%d},\"max_inclusive\":{\"absolute\":%d}}},"
+            + "{\"weight\":1,\"data\":{\"type\":\"minecraft:constant\",\"value\":{\"below_top\":8}}}]}"
+    };
+
+    @Test
+    void typedRewriteMatchesCodecRoundTrip() {
+        HeightProviderScaler heightScaler = OreScaler.newHeightScaler();
+        for (HeightRangePlacement placement : syntheticPlacements()) {
+            HeightRangePlacement typed = OreScaler.scaleHeightRange(placement, heightScaler);
+            HeightRangePlacement codec = OreScaler.scaleHeightRangeWithCodec(placement);
+            assertNotNull(typed, "Typed rewrite produced no placement");
+            assertNotNull(codec, "Codec rewrite produced no placement");
+            assertEquals(encode(codec), encode(typed), "Typed rewrite diverged from the codec round-trip");
+        }
+    }
+
+    static List<HeightRangePlacement> syntheticPlacements() {
+        Random random = new Random(0x5EED_0BE5L);
+        List<HeightRangePlacement> shared = new ArrayList<>(SHARED_PROVIDERS);
+        for (int i = 0; i < SHARED_PROVIDERS; i++) {
+            shared.add(parse(PROVIDER_TEMPLATES[i % PROVIDER_TEMPLATES.length], random));
+        }
+
+        List<HeightRangePlacement> placements = new ArrayList<>(FEATURE_COUNT);
+        for (int i = 0; i < FEATURE_COUNT; i++) {
+            placements.add(shared.get(random.nextInt(SHARED_PROVIDERS)));
+        }
+        return placements;
+    }
+
+    private static HeightRangePlacement parse(String template, Random random) {
+        int low = random.nextInt(64) - 64;
+        int high = random.nextInt(256) + 8;
+        String json = "{\"height\":" + String.format(template, low, high) + "}";
+        return codec().parse(JsonOps.INSTANCE, JsonParser.parseString(json)).getOrThrow();
+    }
+
+    private static JsonElement encode(HeightRangePlacement placement) {
+        return codec().encodeStart(JsonOps.INSTANCE, placement).getOrThrow();
+    }
+
+    private static Codec<HeightRangePlacement> codec() {
+        return HeightRangePlacement.CODEC.codec();
+    }
+}
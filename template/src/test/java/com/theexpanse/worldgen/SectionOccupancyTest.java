@@ -0,0 +1,104 @@
+package com.theexpanse.worldgen;
+
+import com.mojang.serialization.Lifecycle;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.MappedRegistry;
+import net.minecraft.core.RegistrationInfo;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.data.registries.VanillaRegistries;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LevelHeightAccessor;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.Biomes;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import net.minecraft.world.level.chunk.UpgradeData;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(MinecraftBootstrap.class)
+class SectionOccupancyTest {
+    private static final int MIN_Y = -256;
+    private static final int HEIGHT = 2288;
+    private static final ChunkPos POS = new ChunkPos(-3, 5);
+    private static final BlockState STONE = Blocks.STONE.defaultBlockState();
+
+    private static MappedRegistry<Biome> biomes;
+
+    @BeforeAll
+    static void setUp() {
+        biomes = new MappedRegistry<>(Registries.BIOME, Lifecycle.stable());
+        biomes.register(Biomes.PLAINS,
+            VanillaRegistries.createLookup().lookupOrThrow(Registries.BIOME).getOrThrow(Biomes.PLAINS).value(),
+            RegistrationInfo.BUILT_IN);
+        biomes.freeze();
+    }
+
+    @Test
+    void emptyChunkHasNoOccupiedSection() {
+        ProtoChunk chunk = chunk();
+
+        assertEquals(SectionOccupancy.NONE, SectionOccupancy.highestOccupiedSection(chunk));
+        assertEquals(SectionOccupancy.NONE, SectionOccupancy.occupiedSectionAtOrBelow(chunk, 70));
+        assertEquals(MIN_Y - 1, SectionOccupancy.occupiedCeiling(chunk));
+    }
+
+    @Test
+    void findsSectionsPastTheFirstSixtyFour() {
+        ProtoChunk chunk = chunk();
+        place(chunk, 3, 7);
+        place(chunk, 100, 0);
+
+        assertEquals(100, SectionOccupancy.highestOccupiedSection(chunk));
+        assertEquals(MIN_Y + 100 * 16 + 15, SectionOccupancy.occupiedCeiling(chunk));
+        assertEquals(100, SectionOccupancy.occupiedSectionAtOrBelow(chunk, 100));
+        assertEquals(100, SectionOccupancy.occupiedSectionAtOrBelow(chunk, 500));
+        assertEquals(3, SectionOccupancy.occupiedSectionAtOrBelow(chunk, 99));
+        assertEquals(SectionOccupancy.NONE, SectionOccupancy.occupiedSectionAtOrBelow(chunk, 2));
+    }
+
+    @Test
+    void walksDownAcrossGapsBetweenOccupiedSections() {
+        ProtoChunk chunk = chunk();
+        int[] occupied = {0, 5, 63, 64, 65, 127, chunk.getSectionsCount() - 1};
+        for (int index : occupied) {
+            place(chunk, index, 11);
+        }
+
+        List<Integer> visited = new ArrayList<>();
+        for (int index = SectionOccupancy.highestOccupiedSection(chunk); index != SectionOccupancy.NONE;
+                index = SectionOccupancy.occupiedSectionAtOrBelow(chunk, index - 1)) {
+            visited.add(index);
+        }
+        assertEquals(List.of(chunk.getSectionsCount() - 1, 127, 65, 64, 63, 5, 0), visited);
+    }
+
+    @Test
+    void followsBlockRemoval() {
+        ProtoChunk chunk = chunk();
+        place(chunk, 20, 4);
+        BlockPos top = place(chunk, 80, 9);
+        assertEquals(80, SectionOccupancy.highestOccupiedSection(chunk));
+
+        chunk.setBlockState(top, Blocks.AIR.defaultBlockState(), false);
+        assertEquals(20, SectionOccupancy.highestOccupiedSection(chunk));
+        assertEquals(MIN_Y + 20 * 16 + 15, SectionOccupancy.occupiedCeiling(chunk));
+    }
+
+    private static ProtoChunk chunk() {
+        return new ProtoChunk(POS, UpgradeData.EMPTY, LevelHeightAccessor.create(MIN_Y, HEIGHT), biomes, null);
+    }
+
+    private static BlockPos place(ProtoChunk chunk, int sectionIndex, int localY) {
+        BlockPos pos = new BlockPos(POS.getMinBlockX() + 6, MIN_Y + sectionIndex * 16 + localY, POS.getMinBlockZ() + 9);
+        chunk.setBlockState(pos, STONE, false);
+        return pos;
+    }
+}
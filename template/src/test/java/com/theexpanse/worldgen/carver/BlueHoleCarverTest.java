@@ -0,0 +1,109 @@
+package com.theexpanse.worldgen.carver;
+
+import com.theexpanse.worldgen.MinecraftBootstrap;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.CarvingMask;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import net.minecraft.world.level.levelgen.VerticalAnchor;
+import net.minecraft.world.level.levelgen.carver.CaveCarverConfiguration;
+import net.minecraft.world.level.levelgen.heightproviders.ConstantHeight;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The blue hole skips empty sections on its way down; what it carves around them must not change.
+ */
+@ExtendWith(MinecraftBootstrap.class)
+class BlueHoleCarverTest {
+    private static final ChunkPos TARGET = new ChunkPos(0, 0);
+    private static final int FLOOR_Y = 0;
+    // The configured hole is 53 blocks deep, so with its floor at 0 it spans y 0 to 53; the gap is y 16 to 47.
+    private static final int FIRST_GAP_SECTION = (16 - CarverTestFixture.MIN_Y) >> 4;
+    private static final int LAST_GAP_SECTION = (47 - CarverTestFixture.MIN_Y) >> 4;
+    private static final long[] SEEDS = {0L, 42L, -7_331L};
+
+    private static CarverTestFixture fixture;
+    private static CaveCarverConfiguration config;
+
+    @BeforeAll
+    static void setUp() {
+        fixture = new CarverTestFixture();
+        CaveCarverConfiguration shipped = fixture.configured(
+            new BlueHoleCarver(CaveCarverConfiguration.CODEC), "blue_hole").config();
+        config = new CaveCarverConfiguration(shipped.probability, ConstantHeight.of(VerticalAnchor.absolute(FLOOR_Y)),
+            shipped.yScale, shipped.lavaLevel, shipped.debugSettings, shipped.replaceable,
+            shipped.horizontalRadiusMultiplier, shipped.verticalRadiusMultiplier, shipped.floorLevel);
+    }
+
+    @Test
+    void skippingEmptySectionsCarvesTheSameBelowAndAbove() {
+        BlueHoleCarver carver = new BlueHoleCarver(CaveCarverConfiguration.CODEC);
+        for (long seed : SEEDS) {
+            // The same chunk twice: once with air in the gap, once with uncarvable bedrock the loop must walk.
+            ProtoChunk skipped = withGap(Blocks.AIR.defaultBlockState());
+            ProtoChunk walked = withGap(Blocks.BEDROCK.defaultBlockState());
+            CarvingMask skippedMask = fixture.newMask();
+            CarvingMask walkedMask = fixture.newMask();
+            carver.carve(fixture.context, config, skipped, fixture.biomeAccessor, RandomSource.create(seed),
+                fixture.aquifer, TARGET, skippedMask);
+            carver.carve(fixture.context, config, walked, fixture.biomeAccessor, RandomSource.create(seed),
+                fixture.aquifer, TARGET, walkedMask);
+
+            int below = 0;
+            int above = 0;
+            LevelChunkSection[] skippedSections = skipped.getSections();
+            LevelChunkSection[] walkedSections = walked.getSections();
+            for (int index = 0; index < skippedSections.length; index++) {
+                if (index >= FIRST_GAP_SECTION && index <= LAST_GAP_SECTION) {
+                    continue;
+                }
+                for (int y = 0; y < 16; y++) {
+                    int blockY = CarverTestFixture.MIN_Y + index * 16 + y;
+                    for (int z = 0; z < 16; z++) {
+                        for (int x = 0; x < 16; x++) {
+                            BlockState state = walkedSections[index].getBlockState(x, y, z);
+                            String at = x + "," + blockY + "," + z;
+                            assertSame(state, skippedSections[index].getBlockState(x, y, z),
+                                () -> "seed " + seed + " diverged at " + at);
+                            assertEquals(walkedMask.get(x, blockY, z), skippedMask.get(x, blockY, z),
+                                () -> "seed " + seed + " mask diverged at " + at);
+                            if (state.isAir()) {
+                                if (index < FIRST_GAP_SECTION) {
+                                    below++;
+                                } else {
+                                    above++;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            assertTrue(below > 0 && above > 0, "seed " + seed + " did not carve on both sides of the gap");
+        }
+    }
+
+    /** A stone chunk whose two sections in the middle of the hole are filled with {@code gap}. */
+    private static ProtoChunk withGap(BlockState gap) {
+        ProtoChunk chunk = fixture.stoneChunk(TARGET);
+        LevelChunkSection[] sections = chunk.getSections();
+        for (int index = FIRST_GAP_SECTION; index <= LAST_GAP_SECTION; index++) {
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        sections[index].setBlockState(x, y, z, gap, false);
+                    }
+                }
+            }
+        }
+        return chunk;
+    }
+}
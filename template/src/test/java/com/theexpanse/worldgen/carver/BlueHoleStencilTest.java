@@ -0,0 +1,47 @@
+package com.theexpanse.worldgen.carver;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlueHoleStencilTest {
+
+    @Test
+    void quantisedParametersShareAStencil() {
+        assertSame(BlueHoleStencil.of(12.01F, 40, 0.6F), BlueHoleStencil.of(11.99F, 40, 0.61F));
+    }
+
+    @Test
+    void spansMatchDistanceTestPerBlock() {
+        float radius = 13.25F;
+        int depth = 53;
+        float bowlStart = 0.625F;
+        BlueHoleStencil stencil = BlueHoleStencil.of(radius, depth, bowlStart);
+
+        for (int row = 0; row <= depth; row++) {
+            double fraction = (double) row / depth;
+            double rowRadius = fraction <= bowlStart
+                ? radius
+                : radius * Math.sqrt(Math.max(0.0D, 1.0D - Math.pow((fraction - bowlStart) / (1.0D - bowlStart), 2)));
+            for (int dz = -stencil.reach(); dz <= stencil.reach(); dz++) {
+                int halfWidth = stencil.halfWidth(row, dz);
+                for (int dx = -stencil.reach(); dx <= stencil.reach(); dx++) {
+                    boolean inside = (double) dx * dx + (double) dz * dz <= rowRadius * rowRadius;
+                    boolean inSpan = halfWidth != BlueHoleStencil.NO_SPAN && Math.abs(dx) <= halfWidth;
+                    assertEquals(inside, inSpan, "row " + row + " dx " + dx + " dz " + dz);
+                }
+            }
+        }
+    }
+
+    @Test
+    void wallsAreStraightUntilTheBowl() {
+        BlueHoleStencil stencil = BlueHoleStencil.of(10.0F, 40, 0.5F);
+        int top = stencil.halfWidth(0, 0);
+        assertEquals(top, stencil.halfWidth(20, 0));
+        assertTrue(stencil.halfWidth(35, 0) < top);
+        assertEquals(BlueHoleStencil.NO_SPAN, stencil.halfWidth(41, 0));
+    }
+}
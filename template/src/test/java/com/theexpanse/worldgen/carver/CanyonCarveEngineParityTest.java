@@ -0,0 +1,110 @@
+package com.theexpanse.worldgen.carver;
+
+import com.theexpanse.worldgen.MinecraftBootstrap;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.CarvingMask;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import net.minecraft.world.level.levelgen.LegacyRandomSource;
+import net.minecraft.world.level.levelgen.WorldgenRandom;
+import net.minecraft.world.level.levelgen.carver.CanyonCarverConfiguration;
+import net.minecraft.world.level.levelgen.carver.CanyonWorldCarver;
+import net.minecraft.world.level.levelgen.carver.ConfiguredWorldCarver;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MinecraftBootstrap.class)
+class CanyonCarveEngineParityTest {
+    private static final ChunkPos TARGET = new ChunkPos(0, 0);
+    private static final int START_RADIUS = 4;
+    private static final long[] SEEDS = {0L, 42L, 0x5EED_CA4EL, -7_331L};
+
+    private static CarverTestFixture fixture;
+
+    @BeforeAll
+    static void setUp() {
+        fixture = new CarverTestFixture();
+    }
+
+    @Test
+    void massiveRavineMatchesVanilla() {
+        assertParity(new MassiveRavineCarver(), "massive_ravine");
+    }
+
+    @Test
+    void megaOceanRavineMatchesVanilla() {
+        assertParity(new MegaOceanRavineCarver(), "mega_ocean_ravine");
+    }
+
+    private static void assertParity(CanyonWorldCarver carver, String name) {
+        ConfiguredWorldCarver<CanyonCarverConfiguration> expanse = fixture.configured(carver, name);
+        ConfiguredWorldCarver<CanyonCarverConfiguration> vanilla =
+            fixture.configured(new CanyonWorldCarver(CanyonCarverConfiguration.CODEC), name);
+
+        long carved = 0;
+        for (long seed : SEEDS) {
+            ProtoChunk expected = fixture.stoneChunk(TARGET);
+            ProtoChunk actual = fixture.stoneChunk(TARGET);
+            CarvingMask expectedMask = fixture.newMask();
+            CarvingMask actualMask = fixture.newMask();
+
+            carveAll(vanilla, seed, expected, expectedMask);
+            carveAll(expanse, seed, actual, actualMask);
+
+            assertArrayEquals(expectedMask.toArray(), actualMask.toArray(), name + " mask diverged for seed " + seed);
+            carved += assertSameBlocks(expected, actual, name, seed);
+
+            // The second pass is served from the plan cache and must not change anything.
+            long hits = CarverPlanCache.stats().hits();
+            ProtoChunk cached = fixture.stoneChunk(TARGET);
+            CarvingMask cachedMask = fixture.newMask();
+            carveAll(expanse, seed, cached, cachedMask);
+            assertTrue(CarverPlanCache.stats().hits() > hits, name + " plans were not reused for seed " + seed);
+            assertArrayEquals(expectedMask.toArray(), cachedMask.toArray(), name + " cached mask diverged for seed " + seed);
+            assertSameBlocks(expected, cached, name, seed);
+        }
+        assertTrue(carved > 0, name + " never reached the target chunk; parity check is vacuous");
+    }
+
+    private static void carveAll(ConfiguredWorldCarver<?> carver, long seed, ProtoChunk chunk, CarvingMask mask) {
+        WorldgenRandom random = new WorldgenRandom(new LegacyRandomSource(seed));
+        for (int dx = -START_RADIUS; dx <= START_RADIUS; dx++) {
+            for (int dz = -START_RADIUS; dz <= START_RADIUS; dz++) {
+                ChunkPos start = new ChunkPos(TARGET.x + dx, TARGET.z + dz);
+                random.setLargeFeatureSeed(seed, start.x, start.z);
+                carver.carve(fixture.context, chunk, fixture.biomeAccessor, random, fixture.aquifer, start, mask);
+            }
+        }
+    }
+
+    private static long assertSameBlocks(ProtoChunk expected, ProtoChunk actual, String name, long seed) {
+        LevelChunkSection[] expectedSections = expected.getSections();
+        LevelChunkSection[] actualSections = actual.getSections();
+        long carved = 0;
+        for (int index = 0; index < expectedSections.length; index++) {
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        BlockState state = expectedSections[index].getBlockState(x, y, z);
+                        int blockY = CarverTestFixture.MIN_Y + index * 16 + y;
+                        int blockX = x;
+                        int blockZ = z;
+                        assertSame(state, actualSections[index].getBlockState(x, y, z),
+                            () -> name + " diverged for seed " + seed + " at " + blockX + "," + blockY + "," + blockZ);
+                        if (!state.is(Blocks.STONE)) {
+                            carved++;
+                        }
+                    }
+                }
+            }
+        }
+        return carved;
+    }
+}
@@ -0,0 +1,174 @@
+package com.theexpanse.worldgen.carver;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mojang.serialization.JsonOps;
+import com.mojang.serialization.Lifecycle;
+import net.minecraft.SharedConstants;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.MappedRegistry;
+import net.minecraft.core.RegistrationInfo;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.data.registries.VanillaRegistries;
+import net.minecraft.resources.RegistryOps;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LevelHeightAccessor;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.Biomes;
+import net.minecraft.world.level.biome.FixedBiomeSource;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.CarvingMask;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import net.minecraft.world.level.chunk.UpgradeData;
+import net.minecraft.world.level.levelgen.Aquifer;
+import net.minecraft.world.level.levelgen.DensityFunctions;
+import net.minecraft.world.level.levelgen.NoiseBasedChunkGenerator;
+import net.minecraft.world.level.levelgen.NoiseGeneratorSettings;
+import net.minecraft.world.level.levelgen.NoiseRouter;
+import net.minecraft.world.level.levelgen.NoiseSettings;
+import net.minecraft.world.level.levelgen.RandomState;
+import net.minecraft.world.level.levelgen.SurfaceRules;
+import net.minecraft.world.level.levelgen.carver.CarverConfiguration;
+import net.minecraft.world.level.levelgen.carver.CarvingContext;
+import net.minecraft.world.level.levelgen.carver.ConfiguredWorldCarver;
+import net.minecraft.world.level.levelgen.carver.WorldCarver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Stand-alone carving environment for the carver tests and benchmarks: a full-height (-256..2031) stone
+ * {@link ProtoChunk}, a disabled aquifer and a {@link CarvingContext} backed by a zero noise router.
+ *
+ * <p>Configured carvers are read from the shipped datapack JSON. The {@code replaceable} tag is replaced by a
+ * direct block list because tags are not bound outside a running server.
+ */
+final class CarverTestFixture {
+    static final int MIN_Y = -256;
+    static final int HEIGHT = 2288;
+    static final long SEED = 0x5EED_CA4EL;
+
+    private static final BlockState STONE = Blocks.STONE.defaultBlockState();
+    private static final String CARVER_PATH = "/data/the_expanse/worldgen/configured_carver/";
+
+    final HolderLookup.Provider lookup;
+    final LevelHeightAccessor height;
+    final MappedRegistry<Biome> biomes;
+    final Holder<Biome> plains;
+    final NoiseBasedChunkGenerator generator;
+    final RandomState randomState;
+    final CarvingContext context;
+    final Aquifer aquifer;
+    final Function<BlockPos, Holder<Biome>> biomeAccessor;
+
+    CarverTestFixture() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+
+        lookup = VanillaRegistries.createLookup();
+        height = LevelHeightAccessor.create(MIN_Y, HEIGHT);
+
+        Biome plainsValue = lookup.lookupOrThrow(Registries.BIOME).getOrThrow(Biomes.PLAINS).value();
+        biomes = new MappedRegistry<>(Registries.BIOME, Lifecycle.stable());
+        plains = biomes.register(Biomes.PLAINS, plainsValue, RegistrationInfo.BUILT_IN);
+        biomes.freeze();
+
+        NoiseGeneratorSettings settings = new NoiseGeneratorSettings(
+            NoiseSettings.create(MIN_Y, HEIGHT, 1, 2),
+            STONE,
+            Blocks.WATER.defaultBlockState(),
+            zeroRouter(),
+            SurfaceRules.state(STONE),
+            List.of(),
+            63,
+            false,
+            false,
+            false,
+            false
+        );
+        generator = new NoiseBasedChunkGenerator(new FixedBiomeSource(plains), Holder.direct(settings));
+        randomState = RandomState.create(settings, lookup.lookupOrThrow(Registries.NOISE), SEED);
+        context = new CarvingContext(generator, RegistryAccess.EMPTY, height, null, randomState, settings.surfaceRule());
+        aquifer = Aquifer.createDisabled((x, y, z) -> new Aquifer.FluidStatus(MIN_Y - 1, Blocks.AIR.defaultBlockState()));
+        biomeAccessor = pos -> plains;
+    }
+
+    /** A fresh full-height chunk at {@code pos}, solid stone from bottom to top. */
+    ProtoChunk stoneChunk(ChunkPos pos) {
+        ProtoChunk chunk = new ProtoChunk(pos, UpgradeData.EMPTY, height, biomes, null);
+        for (LevelChunkSection section : chunk.getSections()) {
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        section.setBlockState(x, y, z, STONE, false);
+                    }
+                }
+            }
+        }
+        return chunk;
+    }
+
+    CarvingMask newMask() {
+        return new CarvingMask(HEIGHT, MIN_Y);
+    }
+
+    <C extends CarverConfiguration> ConfiguredWorldCarver<C> configured(WorldCarver<C> carver, String name) {
+        JsonObject json = readCarverJson(name);
+        JsonArray replaceable = new JsonArray();
+        replaceable.add("minecraft:stone");
+        replaceable.add("minecraft:deepslate");
+        replaceable.add("minecraft:dirt");
+        replaceable.add("minecraft:gravel");
+        json.getAsJsonObject("config").add("replaceable", replaceable);
+
+        RegistryOps<JsonElement> ops = RegistryOps.create(JsonOps.INSTANCE, lookup);
+        return carver.configuredCodec().codec().parse(ops, json).getOrThrow();
+    }
+
+    private static JsonObject readCarverJson(String name) {
+        String path = CARVER_PATH + name + ".json";
+        try (InputStream stream = CarverTestFixture.class.getResourceAsStream(path)) {
+            if (stream == null) {
+                throw new IllegalStateException("Missing carver resource " + path);
+            }
+            try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+                return JsonParser.parseReader(reader).getAsJsonObject();
+            }
+        } catch (IOException exception) {
+            throw new IllegalStateException("Failed to read carver resource " + path, exception);
+        }
+    }
+
+    private static NoiseRouter zeroRouter() {
+        return new NoiseRouter(
+            DensityFunctions.zero(),
+            DensityFunctions.zero(),
+            DensityFunctions.zero(),
+            DensityFunctions.zero(),
+            DensityFunctions.zero(),
+            DensityFunctions.zero(),
+            DensityFunctions.zero(),
+            DensityFunctions.zero(),
+            DensityFunctions.zero(),
+            DensityFunctions.zero(),
+            DensityFunctions.zero(),
+            DensityFunctions.zero(),
+            DensityFunctions.zero(),
+            DensityFunctions.zero(),
+            DensityFunctions.zero()
+        );
+    }
+}
@@ -0,0 +1,116 @@
+package com.theexpanse.worldgen.carver;
+
+import com.theexpanse.worldgen.MinecraftBootstrap;
+import it.unimi.dsi.fastutil.shorts.ShortList;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.CarvingMask;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import net.minecraft.world.level.levelgen.Aquifer;
+import net.minecraft.world.level.levelgen.DensityFunction;
+import net.minecraft.world.level.levelgen.carver.CanyonCarverConfiguration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MinecraftBootstrap.class)
+class SettledFluidsTest {
+    private static final ChunkPos TARGET = new ChunkPos(0, 0);
+    private static final int Y = 100;
+    private static final BlockState WATER = Blocks.WATER.defaultBlockState();
+
+    private static CarverTestFixture fixture;
+    private static CanyonCarverConfiguration config;
+
+    @BeforeAll
+    static void setUp() {
+        fixture = new CarverTestFixture();
+        config = fixture.configured(new MegaOceanRavineCarver(), "mega_ocean_ravine").config();
+    }
+
+    @Test
+    void enclosedFluidIsNotMarked() {
+        ProtoChunk chunk = fixture.stoneChunk(TARGET);
+        CarvingMask mask = fixture.newMask();
+        carveRow(chunk, mask, filling(WATER), 5, 7);
+        SettledFluids.settle(chunk);
+
+        assertEquals(WATER, chunk.getBlockState(new BlockPos(6, Y, 6)));
+        for (int x = 5; x <= 7; x++) {
+            assertFalse(isMarked(chunk, x, Y, 6), "enclosed water at x " + x);
+        }
+    }
+
+    @Test
+    void laterCarverOpeningAirMarksTheFluidItExposes() {
+        ProtoChunk chunk = fixture.stoneChunk(TARGET);
+        CarvingMask mask = fixture.newMask();
+        carveRow(chunk, mask, filling(WATER), 5, 7);
+        // A second carver in the same chunk opens air next to the end of the water row.
+        carveRow(chunk, mask, filling(Blocks.AIR.defaultBlockState()), 8, 9);
+        SettledFluids.settle(chunk);
+
+        assertTrue(isMarked(chunk, 7, Y, 6), "water next to later-carved air must flow");
+        assertFalse(isMarked(chunk, 5, Y, 6));
+        assertFalse(isMarked(chunk, 6, Y, 6));
+    }
+
+    @Test
+    void unsettledChunkKeepsEveryMarkLikeVanilla() {
+        ProtoChunk chunk = fixture.stoneChunk(TARGET);
+        carveRow(chunk, fixture.newMask(), filling(WATER), 5, 7);
+
+        for (int x = 5; x <= 7; x++) {
+            assertTrue(isMarked(chunk, x, Y, 6), "water at x " + x);
+        }
+    }
+
+    @Test
+    void settlingKeepsMarksItDidNotRecord() {
+        ProtoChunk chunk = fixture.stoneChunk(TARGET);
+        BlockPos vanilla = new BlockPos(3, Y, 3);
+        chunk.setBlockState(vanilla, WATER, false);
+        chunk.markPosForPostprocessing(vanilla);
+        carveRow(chunk, fixture.newMask(), filling(WATER), 5, 7);
+        SettledFluids.settle(chunk);
+
+        assertTrue(isMarked(chunk, 3, Y, 3), "a mark from another source must survive");
+        assertFalse(isMarked(chunk, 6, Y, 6));
+    }
+
+    private static void carveRow(ProtoChunk chunk, CarvingMask mask, Aquifer aquifer, int fromX, int toX) {
+        BlockCarveWriter writer = BlockCarveWriter.begin(fixture.context, config, chunk, fixture.biomeAccessor,
+            aquifer, mask, true);
+        try {
+            writer.carveSpan(chunk.getSection(chunk.getSectionIndex(Y)), Y, 6, fromX, toX);
+        } finally {
+            writer.end();
+        }
+    }
+
+    private static boolean isMarked(ProtoChunk chunk, int x, int y, int z) {
+        ShortList marks = chunk.getPostProcessing()[chunk.getSectionIndex(y)];
+        return marks != null && marks.contains(ProtoChunk.packOffsetCoordinates(new BlockPos(x, y, z)));
+    }
+
+    /** An aquifer that fills every carved block with {@code state} and asks for fluid updates. */
+    private static Aquifer filling(BlockState state) {
+        return new Aquifer() {
+            @Override
+            public BlockState computeSubstance(DensityFunction.FunctionContext context, double substance) {
+                return state;
+            }
+
+            @Override
+            public boolean shouldScheduleFluidUpdate() {
+                return true;
+            }
+        };
+    }
+}
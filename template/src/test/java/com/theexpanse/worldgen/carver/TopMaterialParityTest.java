@@ -0,0 +1,169 @@
+package com.theexpanse.worldgen.carver;
+
+import com.mojang.serialization.Lifecycle;
+import com.theexpanse.worldgen.MinecraftBootstrap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.core.MappedRegistry;
+import net.minecraft.core.RegistrationInfo;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.Biomes;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.CarvingMask;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import net.minecraft.world.level.levelgen.SurfaceRules;
+import net.minecraft.world.level.levelgen.carver.CanyonCarverConfiguration;
+import net.minecraft.world.level.levelgen.carver.CanyonWorldCarver;
+import net.minecraft.world.level.levelgen.carver.CarvingContext;
+import org.apache.commons.lang3.mutable.MutableBoolean;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static net.minecraft.world.level.levelgen.SurfaceRules.state;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The grass fix-up under carved surface blocks must pick the same top material as vanilla when the biome
+ * changes from block to block, as it does across a fuzzy-zoomed quart edge.
+ */
+@ExtendWith(MinecraftBootstrap.class)
+class TopMaterialParityTest {
+    private static final ChunkPos TARGET = new ChunkPos(2, -3);
+    private static final int SURFACE_Y = 101;
+    private static final int DIRT_DEPTH = 6;
+
+    private static CarverTestFixture fixture;
+    private static CanyonCarverConfiguration config;
+    private static CarvingContext context;
+    private static Function<BlockPos, Holder<Biome>> biomeAccessor;
+
+    @BeforeAll
+    static void setUp() {
+        fixture = new CarverTestFixture();
+        config = fixture.configured(new MegaOceanRavineCarver(), "mega_ocean_ravine").config();
+
+        MappedRegistry<Biome> biomes = new MappedRegistry<>(Registries.BIOME, Lifecycle.stable());
+        List<Holder<Biome>> holders = List.of(
+            register(biomes, Biomes.PLAINS), register(biomes, Biomes.DESERT), register(biomes, Biomes.FOREST));
+        biomes.freeze();
+
+        SurfaceRules.RuleSource rule = SurfaceRules.sequence(
+            SurfaceRules.ifTrue(SurfaceRules.isBiome(Biomes.DESERT), state(Blocks.SAND.defaultBlockState())),
+            SurfaceRules.ifTrue(SurfaceRules.isBiome(Biomes.FOREST), state(Blocks.PODZOL.defaultBlockState())),
+            state(Blocks.GRASS_BLOCK.defaultBlockState()));
+        RegistryAccess registries = new RegistryAccess.ImmutableRegistryAccess(List.of(biomes)).freeze();
+        context = new CarvingContext(fixture.generator, registries, fixture.height, null, fixture.randomState, rule);
+        // Changes within every quart, so a quart-resolution answer would differ from the accessor's.
+        biomeAccessor = pos -> holders.get(Math.floorMod(pos.getX() * 7 + pos.getY() * 3 + pos.getZ(), holders.size()));
+    }
+
+    @Test
+    void topMaterialFollowsTheAccessorBiome() {
+        ProtoChunk expected = grassChunk();
+        ProtoChunk actual = grassChunk();
+        carveVanilla(expected);
+        carveExpanse(actual);
+
+        int desert = 0;
+        int forest = 0;
+        int minX = TARGET.getMinBlockX();
+        int minZ = TARGET.getMinBlockZ();
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
+                for (int y = SURFACE_Y - DIRT_DEPTH; y <= SURFACE_Y; y++) {
+                    BlockPos pos = new BlockPos(minX + x, y, minZ + z);
+                    BlockState state = expected.getBlockState(pos);
+                    assertSame(state, actual.getBlockState(pos), "top material diverged at " + pos);
+                    desert += state.is(Blocks.SAND) ? 1 : 0;
+                    forest += state.is(Blocks.PODZOL) ? 1 : 0;
+                }
+            }
+        }
+        assertTrue(desert > 0 && forest > 0, "the fix-up never saw more than one biome; parity check is vacuous");
+    }
+
+    private static void carveVanilla(ProtoChunk chunk) {
+        ExposedCanyonCarver carver = new ExposedCanyonCarver();
+        CarvingMask mask = fixture.newMask();
+        MutableBoolean[] reachedSurface = new MutableBoolean[256];
+        for (int i = 0; i < reachedSurface.length; i++) {
+            reachedSurface[i] = new MutableBoolean();
+        }
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        BlockPos.MutableBlockPos checkPos = new BlockPos.MutableBlockPos();
+        for (int y = SURFACE_Y; y > SURFACE_Y - DIRT_DEPTH; y--) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    if (mask.get(x, y, z)) {
+                        continue;
+                    }
+                    mask.set(x, y, z);
+                    pos.set(TARGET.getMinBlockX() + x, y, TARGET.getMinBlockZ() + z);
+                    carver.carve(chunk, mask, pos, checkPos, reachedSurface[x | z << 4]);
+                }
+            }
+        }
+    }
+
+    private static void carveExpanse(ProtoChunk chunk) {
+        BlockCarveWriter writer = BlockCarveWriter.begin(context, config, chunk, biomeAccessor, fixture.aquifer,
+            fixture.newMask(), false);
+        try {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    writer.beginColumn(x, z);
+                }
+            }
+            for (int y = SURFACE_Y; y > SURFACE_Y - DIRT_DEPTH; y--) {
+                for (int z = 0; z < 16; z++) {
+                    writer.carveSpan(chunk.getSection(chunk.getSectionIndex(y)), y, z, 0, 15);
+                }
+            }
+        } finally {
+            writer.end();
+        }
+    }
+
+    /** A stone chunk topped with grass over dirt, so every column reaches the surface and exposes dirt. */
+    private static ProtoChunk grassChunk() {
+        ProtoChunk chunk = fixture.stoneChunk(TARGET);
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
+                pos.set(TARGET.getMinBlockX() + x, SURFACE_Y, TARGET.getMinBlockZ() + z);
+                chunk.setBlockState(pos, Blocks.GRASS_BLOCK.defaultBlockState(), false);
+                for (int depth = 1; depth <= DIRT_DEPTH; depth++) {
+                    chunk.setBlockState(pos.move(0, -1, 0), Blocks.DIRT.defaultBlockState(), false);
+                }
+            }
+        }
+        return chunk;
+    }
+
+    private static Holder<Biome> register(MappedRegistry<Biome> biomes, ResourceKey<Biome> key) {
+        Biome biome = fixture.lookup.lookupOrThrow(Registries.BIOME).getOrThrow(key).value();
+        return biomes.register(key, biome, RegistrationInfo.BUILT_IN);
+    }
+
+    /** Opens vanilla's per-block carve step to the test. */
+    private static final class ExposedCanyonCarver extends CanyonWorldCarver {
+        ExposedCanyonCarver() {
+            super(CanyonCarverConfiguration.CODEC);
+        }
+
+        void carve(ProtoChunk chunk, CarvingMask mask, BlockPos.MutableBlockPos pos, BlockPos.MutableBlockPos checkPos,
+                   MutableBoolean reachedSurface) {
+            carveBlock(context, config, chunk, biomeAccessor, mask, pos, checkPos, fixture.aquifer, reachedSurface);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.theexpanse.worldgen.density;
+
+import com.theexpanse.worldgen.MinecraftBootstrap;
+import net.minecraft.util.KeyDispatchDataCodec;
+import net.minecraft.world.level.levelgen.DensityFunction;
+import net.minecraft.world.level.levelgen.DensityFunctions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@ExtendWith(MinecraftBootstrap.class)
+class BatchKernelTest {
+    private static final int CORNERS = 287;
+
+    @Test
+    void compiledColumnMatchesVanillaBitForBit() {
+        DensityFunction wave = new Wave();
+        DensityFunction terrain = DensityFunctions.add(
+            DensityFunctions.min(wave.square(), DensityFunctions.mul(DensityFunctions.constant(5.0D), wave.abs())),
+            DensityFunctions.max(wave.halfNegative().squeeze(), wave.quarterNegative().cube().clamp(-0.3D, 0.4D)));
+        DensityFunction slid = DensityFunctions.add(DensityFunctions.constant(0.1171875D), DensityFunctions.mul(
+            DensityFunctions.yClampedGradient(-64, -40, 0.0D, 1.0D),
+            DensityFunctions.add(DensityFunctions.constant(-0.1171875D), DensityFunctions.add(
+                DensityFunctions.constant(-0.078125D), DensityFunctions.mul(
+                    DensityFunctions.yClampedGradient(240, 256, 1.0D, 0.0D),
+                    DensityFunctions.add(DensityFunctions.constant(0.078125D), terrain))))));
+
+        DensityFunction[] trees = {
+            slid,
+            new YBoundedDensityFunction(slid, -64, 256, 0.1171875D, -0.078125D),
+            DensityFunctions.min(wave, DensityFunctions.mul(wave, DensityFunctions.yClampedGradient(0, 64, -1.0D, 1.0D)))
+        };
+        for (DensityFunction tree : trees) {
+            BatchKernel kernel = BatchKernel.compile(tree);
+            assertNotNull(kernel, "Arithmetic root was not compiled");
+            for (int x = -40; x <= 40; x += 13) {
+                Column column = new Column(x, -7);
+                double[] expected = new double[CORNERS];
+                double[] actual = new double[CORNERS];
+                tree.fillArray(expected, column);
+                kernel.fill(actual, column);
+                for (int i = 0; i < CORNERS; i++) {
+                    assertEquals(Double.doubleToLongBits(expected[i]), Double.doubleToLongBits(actual[i]),
+                        "corner " + i + " of column " + x);
+                    assertEquals(Double.doubleToLongBits(tree.compute(column.forIndex(i))),
+                        Double.doubleToLongBits(actual[i]), "point " + i + " of column " + x);
+                }
+            }
+        }
+    }
+
+    /** Y-dependent stand-in for a noise, zero on a band so the short-circuits are exercised. */
+    private static final class Wave implements DensityFunction.SimpleFunction {
+        @Override
+        public double compute(FunctionContext context) {
+            int y = context.blockY();
+            return y > 96 && y < 160 ? 0.0D : Math.sin(context.blockX() * 0.3D + y * 0.05D) * 1.7D;
+        }
+
+        @Override
+        public double minValue() {
+            return -1.7D;
+        }
+
+        @Override
+        public double maxValue() {
+            return 1.7D;
+        }
+
+        @Override
+        public KeyDispatchDataCodec<? extends DensityFunction> codec() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /** A column of cell corners eight blocks apart over the full 2288-block height. */
+    private record Column(int x, int z) implements DensityFunction.ContextProvider {
+        @Override
+        public DensityFunction.FunctionContext forIndex(int index) {
+            return new DensityFunction.SinglePointContext(x, -256 + index * 8, z);
+        }
+
+        @Override
+        public void fillAllDirectly(double[] values, DensityFunction function) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = function.compute(forIndex(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.theexpanse.worldgen.density;
+
+import com.theexpanse.worldgen.MinecraftBootstrap;
+import net.minecraft.util.KeyDispatchDataCodec;
+import net.minecraft.world.level.levelgen.DensityFunction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(MinecraftBootstrap.class)
+class ColumnMemoDensityFunctionTest {
+    @Test
+    void evaluatesEachColumnOnce() {
+        ColumnFunction column = new ColumnFunction(1.0D);
+        DensityFunction memo = new ColumnMemoDensityFunction(column);
+
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                for (int y = -256; y < 2032; y += 4) {
+                    assertEquals(column.valueAt(x, z), memo.compute(new DensityFunction.SinglePointContext(x, y, z)));
+                }
+            }
+        }
+        assertEquals(256, column.evaluations);
+    }
+
+    @Test
+    void interleavedMemosKeepTheirOwnColumns() {
+        // The climate sampler evaluates every climate input at a point before moving to the next quart.
+        ColumnFunction[] inputs = new ColumnFunction[5];
+        DensityFunction[] memos = new DensityFunction[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = new ColumnFunction(i + 1.0D);
+            memos[i] = new ColumnMemoDensityFunction(inputs[i]);
+        }
+
+        for (int x = 0; x < 16; x += 4) {
+            for (int z = 0; z < 16; z += 4) {
+                for (int y = -256; y < 2032; y += 4) {
+                    DensityFunction.SinglePointContext point = new DensityFunction.SinglePointContext(x, y, z);
+                    for (int i = 0; i < inputs.length; i++) {
+                        assertEquals(inputs[i].valueAt(x, z), memos[i].compute(point));
+                    }
+                }
+            }
+        }
+        for (ColumnFunction input : inputs) {
+            assertEquals(16, input.evaluations);
+        }
+    }
+
+    @Test
+    void collidingColumnsAndInstancesDoNotShareValues() {
+        ColumnFunction first = new ColumnFunction(1.0D);
+        ColumnFunction second = new ColumnFunction(-3.0D);
+        DensityFunction firstMemo = new ColumnMemoDensityFunction(first);
+        DensityFunction secondMemo = new ColumnMemoDensityFunction(second);
+
+        // Same table slot: x and z differ by whole chunks.
+        int[][] columns = {{3, 5}, {19, 5}, {3, -11}, {-13, 21}, {3, 5}};
+        for (int[] xz : columns) {
+            DensityFunction.SinglePointContext point = new DensityFunction.SinglePointContext(xz[0], 64, xz[1]);
+            assertEquals(first.valueAt(xz[0], xz[1]), firstMemo.compute(point));
+            assertEquals(second.valueAt(xz[0], xz[1]), secondMemo.compute(point));
+        }
+    }
+
+    @Test
+    void reclaimedTablesForgetTheirPreviousOwner() {
+        // More instances than a thread keeps tables, as when a worker moves through chunk after chunk.
+        DensityFunction.SinglePointContext point = new DensityFunction.SinglePointContext(7, 64, 9);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 20; i++) {
+                ColumnFunction input = new ColumnFunction(i + 1.0D);
+                DensityFunction memo = new ColumnMemoDensityFunction(input);
+                assertEquals(input.valueAt(7, 9), memo.compute(point));
+                assertEquals(input.valueAt(7, 9), memo.compute(point));
+                assertEquals(1, input.evaluations);
+            }
+        }
+    }
+
+    private static final class ColumnFunction implements DensityFunction.SimpleFunction {
+        private final double scale;
+        private int evaluations;
+
+        ColumnFunction(double scale) {
+            this.scale = scale;
+        }
+
+        double valueAt(int x, int z) {
+            return scale * (x * 31 + z);
+        }
+
+        @Override
+        public double compute(FunctionContext context) {
+            evaluations++;
+            return valueAt(context.blockX(), context.blockZ());
+        }
+
+        @Override
+        public double minValue() {
+            return -Double.MAX_VALUE;
+        }
+
+        @Override
+        public double maxValue() {
+            return Double.MAX_VALUE;
+        }
+
+        @Override
+        public KeyDispatchDataCodec<? extends DensityFunction> codec() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
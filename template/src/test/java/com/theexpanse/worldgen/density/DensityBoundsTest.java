@@ -0,0 +1,46 @@
+package com.theexpanse.worldgen.density;
+
+import com.theexpanse.worldgen.MinecraftBootstrap;
+import net.minecraft.world.level.levelgen.DensityFunction;
+import net.minecraft.world.level.levelgen.DensityFunctions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MinecraftBootstrap.class)
+class DensityBoundsTest {
+    private static final int MIN_Y = -256;
+    private static final int MAX_Y = 2031;
+    private static final int CELL_HEIGHT = 8;
+
+    @Test
+    void slidTerrainIsNonPositiveAboveItsBand() {
+        DensityFunction noise = DensityFunctions.yClampedGradient(MIN_Y, MAX_Y, -3.0D, 3.0D).abs();
+        DensityFunction slid = DensityFunctions.add(DensityFunctions.constant(-0.078125D), DensityFunctions.mul(
+            DensityFunctions.yClampedGradient(240, 256, 1.0D, 0.0D),
+            DensityFunctions.add(DensityFunctions.constant(0.078125D), noise)));
+        DensityFunction bounded = new YBoundedDensityFunction(slid, -64, 256, 0.1171875D, -0.078125D);
+        DensityFunction finalDensity = DensityFunctions.min(
+            DensityFunctions.mul(DensityFunctions.constant(0.64D),
+                DensityFunctions.interpolated(DensityFunctions.blendDensity(bounded))).squeeze(),
+            DensityFunctions.constant(4.0D));
+
+        assertEquals(256, DensityBounds.nonPositiveFrom(finalDensity, MIN_Y, MAX_Y, CELL_HEIGHT));
+        for (int y = 256; y <= MAX_Y; y += 7) {
+            assertTrue(finalDensity.compute(new DensityFunction.SinglePointContext(0, y, 0)) <= 0.0D, "y " + y);
+        }
+        assertTrue(finalDensity.compute(new DensityFunction.SinglePointContext(0, 248, 0)) > 0.0D);
+    }
+
+    @Test
+    void rangeChoicesAreBoundedByBothBranches() {
+        DensityFunction choice = DensityFunctions.rangeChoice(DensityFunctions.yClampedGradient(0, 64, 0.0D, 1.0D),
+            0.0D, 0.5D, DensityFunctions.constant(-1.0D), DensityFunctions.constant(-2.0D));
+        assertEquals(MIN_Y, DensityBounds.nonPositiveFrom(choice, MIN_Y, MAX_Y, CELL_HEIGHT));
+
+        DensityFunction positive = DensityFunctions.add(choice, DensityFunctions.constant(1.5D));
+        assertEquals(MAX_Y + 1, DensityBounds.nonPositiveFrom(positive, MIN_Y, MAX_Y, CELL_HEIGHT));
+    }
+}
@@ -0,0 +1,121 @@
+package com.theexpanse.worldgen.density;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.theexpanse.worldgen.MinecraftBootstrap;
+import net.minecraft.world.level.levelgen.DensityFunction;
+import net.minecraft.world.level.levelgen.DensityFunctions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@ExtendWith(MinecraftBootstrap.class)
+class YBoundedDensityFunctionTest {
+    private static final String NOISE_SETTINGS = "/data/minecraft/worldgen/noise_settings/";
+    private static final String[] SETTINGS = {"overworld", "nether", "end"};
+
+    @Test
+    void shippedBandsMatchTerrainSlides() throws IOException {
+        for (String name : SETTINGS) {
+            JsonObject bounded = findType(readSettings(name).get("noise_router"), "the_expanse:y_bounded");
+            assertNotNull(bounded, name + " does not bound its terrain tree");
+
+            // add(c0, mul(bottom_slide, add(-c0, add(c1, mul(top_slide, add(-c1, terrain))))))
+            JsonObject tree = bounded.getAsJsonObject("argument");
+            double c0 = tree.get("argument1").getAsDouble();
+            JsonObject bottomSlide = tree.getAsJsonObject("argument2").getAsJsonObject("argument1");
+            JsonObject inner = tree.getAsJsonObject("argument2").getAsJsonObject("argument2")
+                .getAsJsonObject("argument2");
+            double c1 = inner.get("argument1").getAsDouble();
+            JsonObject topSlide = inner.getAsJsonObject("argument2").getAsJsonObject("argument1");
+
+            assertEquals(bottomSlide.get("from_y").getAsInt(), bounded.get("min_y").getAsInt(), name + " min_y");
+            assertEquals(0.0D, bottomSlide.get("from_value").getAsDouble(), name + " bottom slide");
+            assertEquals(topSlide.get("to_y").getAsInt(), bounded.get("max_y").getAsInt(), name + " max_y");
+            assertEquals(0.0D, topSlide.get("to_value").getAsDouble(), name + " top slide");
+            assertEquals(c0, bounded.get("below").getAsDouble(), name + " below");
+            assertEquals(c0 + (-c0 + c1), bounded.get("above").getAsDouble(), name + " above");
+        }
+    }
+
+    @Test
+    void boundedTreeMatchesUnboundedTreeAtEveryHeight() {
+        // The overworld slide structure around a terrain stand-in that varies with y.
+        DensityFunction terrain = DensityFunctions.yClampedGradient(-256, 2031, 3.0D, -7.0D);
+        DensityFunction tree = DensityFunctions.add(DensityFunctions.constant(0.1171875D), DensityFunctions.mul(
+            DensityFunctions.yClampedGradient(-64, -40, 0.0D, 1.0D),
+            DensityFunctions.add(DensityFunctions.constant(-0.1171875D), DensityFunctions.add(
+                DensityFunctions.constant(-0.078125D), DensityFunctions.mul(
+                    DensityFunctions.yClampedGradient(240, 256, 1.0D, 0.0D),
+                    DensityFunctions.add(DensityFunctions.constant(0.078125D), terrain))))));
+        DensityFunction bounded = new YBoundedDensityFunction(tree, -64, 256, 0.1171875D, -0.078125D);
+
+        for (int y = -256; y < 2032; y++) {
+            DensityFunction.SinglePointContext point = new DensityFunction.SinglePointContext(5, y, -9);
+            assertEquals(tree.compute(point), bounded.compute(point), "density at y " + y);
+        }
+
+        double[] expected = new double[287];
+        double[] actual = new double[287];
+        DensityFunction.ContextProvider column = new DensityFunction.ContextProvider() {
+            @Override
+            public DensityFunction.FunctionContext forIndex(int index) {
+                return new DensityFunction.SinglePointContext(0, -256 + index * 8, 0);
+            }
+
+            @Override
+            public void fillAllDirectly(double[] values, DensityFunction function) {
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = function.compute(forIndex(i));
+                }
+            }
+        };
+        tree.fillArray(expected, column);
+        bounded.fillArray(actual, column);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], actual[i], "cell corner " + i);
+        }
+    }
+
+    private static JsonObject readSettings(String name) throws IOException {
+        String path = NOISE_SETTINGS + name + ".json";
+        try (InputStream stream = YBoundedDensityFunctionTest.class.getResourceAsStream(path)) {
+            assertNotNull(stream, "Missing " + path);
+            try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+                return JsonParser.parseReader(reader).getAsJsonObject();
+            }
+        }
+    }
+
+    private static JsonObject findType(JsonElement element, String type) {
+        if (element.isJsonObject()) {
+            JsonObject object = element.getAsJsonObject();
+            if (object.has("type") && type.equals(object.get("type").getAsString())) {
+                return object;
+            }
+            for (var entry : object.entrySet()) {
+                JsonObject found = findType(entry.getValue(), type);
+                if (found != null) {
+                    return found;
+                }
+            }
+        } else if (element.isJsonArray()) {
+            for (JsonElement child : element.getAsJsonArray()) {
+                JsonObject found = findType(child, type);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,69 @@
+package com.theexpanse.worldgen.generator;
+
+import com.theexpanse.worldgen.MinecraftBootstrap;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.Aquifer;
+import net.minecraft.world.level.levelgen.DensityFunction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MinecraftBootstrap.class)
+class BoundedAquiferTest {
+    private static final int CEILING = 368;
+
+    @Test
+    void runsTheWrappedAquiferUpToTheCeilingOnly() {
+        CountingAquifer wrapped = new CountingAquifer();
+        Aquifer.FluidStatus sea = new Aquifer.FluidStatus(160, Blocks.WATER.defaultBlockState());
+        Aquifer bounded = new BoundedAquifer(wrapped, (x, y, z) -> sea, CEILING);
+
+        assertEquals(Blocks.LAVA.defaultBlockState(), bounded.computeSubstance(point(CEILING), -1.0D));
+        assertTrue(bounded.shouldScheduleFluidUpdate());
+        assertEquals(1, wrapped.calls);
+
+        assertEquals(Blocks.AIR.defaultBlockState(), bounded.computeSubstance(point(CEILING + 1), -1.0D));
+        assertFalse(bounded.shouldScheduleFluidUpdate());
+        assertNull(bounded.computeSubstance(point(2031), 0.5D));
+        assertEquals(1, wrapped.calls);
+    }
+
+    @Test
+    void answersLikeADisabledAquiferAboveTheCeiling() {
+        Aquifer.FluidStatus high = new Aquifer.FluidStatus(CEILING + 100, Blocks.WATER.defaultBlockState());
+        Aquifer.FluidPicker picker = (x, y, z) -> high;
+        Aquifer disabled = Aquifer.createDisabled(picker);
+        Aquifer bounded = new BoundedAquifer(new CountingAquifer(), picker, CEILING);
+
+        for (int y = CEILING + 1; y < CEILING + 200; y += 7) {
+            for (double density : new double[] {-0.5D, 0.0D, 0.5D}) {
+                assertEquals(disabled.computeSubstance(point(y), density), bounded.computeSubstance(point(y), density),
+                    "substance at y " + y + " for density " + density);
+            }
+        }
+    }
+
+    private static DensityFunction.FunctionContext point(int y) {
+        return new DensityFunction.SinglePointContext(3, y, -5);
+    }
+
+    private static final class CountingAquifer implements Aquifer {
+        private int calls;
+
+        @Override
+        public BlockState computeSubstance(DensityFunction.FunctionContext context, double substance) {
+            calls++;
+            return Blocks.LAVA.defaultBlockState();
+        }
+
+        @Override
+        public boolean shouldScheduleFluidUpdate() {
+            return true;
+        }
+    }
+}
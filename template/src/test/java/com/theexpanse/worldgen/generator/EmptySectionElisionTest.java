@@ -0,0 +1,168 @@
+package com.theexpanse.worldgen.generator;
+
+import com.mojang.serialization.Lifecycle;
+import com.theexpanse.worldgen.MinecraftBootstrap;
+import net.minecraft.core.Holder;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.MappedRegistry;
+import net.minecraft.core.RegistrationInfo;
+import net.minecraft.core.Registry;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.data.registries.VanillaRegistries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LevelHeightAccessor;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.Biomes;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import net.minecraft.world.level.chunk.UpgradeData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MinecraftBootstrap.class)
+class EmptySectionElisionTest {
+    private static final int MIN_Y = -256;
+    private static final int HEIGHT = 2288;
+
+    @Test
+    void elidesOnlyBareAirSectionsAndRecordsTheirBiomes() {
+        ListTag sections = new ListTag();
+        sections.add(section(-17, null, null));
+        sections.add(section(0, "minecraft:stone", "minecraft:plains"));
+        sections.add(section(10, "minecraft:air", "minecraft:plains"));
+        sections.add(section(11, "minecraft:air", "minecraft:desert"));
+        sections.add(section(12, "minecraft:air", "minecraft:plains"));
+        CompoundTag lit = section(13, "minecraft:air", "minecraft:plains");
+        lit.putByteArray("SkyLight", new byte[2048]);
+        sections.add(lit);
+        CompoundTag mixed = section(14, "minecraft:air", "minecraft:plains");
+        mixed.getCompound("biomes").getList("palette", Tag.TAG_STRING).add(StringTag.valueOf("minecraft:desert"));
+        mixed.getCompound("biomes").putLongArray("data", new long[1]);
+        sections.add(mixed);
+        CompoundTag chunk = new CompoundTag();
+        chunk.put("sections", sections);
+
+        assertEquals(3, EmptySectionElision.elide(chunk));
+        assertEquals(List.of(-17, 0, 13, 14), sectionYs(chunk));
+        assertEquals(Map.of(10, "minecraft:plains", 11, "minecraft:desert", 12, "minecraft:plains"),
+            EmptySectionElision.elided(chunk));
+    }
+
+    @Test
+    void leavesChunksWithoutEmptySectionsUntouched() {
+        ListTag sections = new ListTag();
+        sections.add(section(0, "minecraft:stone", "minecraft:plains"));
+        CompoundTag chunk = new CompoundTag();
+        chunk.put("sections", sections);
+        CompoundTag before = chunk.copy();
+
+        assertEquals(0, EmptySectionElision.elide(chunk));
+        assertEquals(before, chunk);
+        assertFalse(chunk.contains(EmptySectionElision.ELIDED_TAG));
+    }
+
+    @Test
+    void restoresElidedBiomesIntoAFreshChunk() {
+        MappedRegistry<Biome> biomes = new MappedRegistry<>(Registries.BIOME, Lifecycle.stable());
+        HolderLookup.RegistryLookup<Biome> vanilla = VanillaRegistries.createLookup().lookupOrThrow(Registries.BIOME);
+        Holder<Biome> plains = biomes.register(Biomes.PLAINS, vanilla.getOrThrow(Biomes.PLAINS).value(),
+            RegistrationInfo.BUILT_IN);
+        Holder<Biome> desert = biomes.register(Biomes.DESERT, vanilla.getOrThrow(Biomes.DESERT).value(),
+            RegistrationInfo.BUILT_IN);
+        biomes.freeze();
+
+        // What was saved: sky sections in desert at section Ys 10 and 40, plains around them.
+        ProtoChunk saved = chunk(biomes);
+        setBiome(saved, 10, desert, biomes);
+        setBiome(saved, 40, desert, biomes);
+        Map<Integer, String> elided = new TreeMap<>();
+        elided.put(10, "minecraft:desert");
+        elided.put(11, "minecraft:plains");
+        elided.put(40, "minecraft:desert");
+        // Recorded by a pack that is gone, or outside this dimension's height: left as vanilla loads them.
+        elided.put(12, "some_mod:removed_biome");
+        elided.put(13, "Not A Biome");
+        elided.put(-17, "minecraft:desert");
+        elided.put(HEIGHT / 16, "minecraft:desert");
+
+        ProtoChunk loaded = chunk(biomes);
+        EmptySectionElision.restore(loaded, elided, biomes);
+
+        LevelChunkSection[] expected = saved.getSections();
+        LevelChunkSection[] actual = loaded.getSections();
+        assertEquals(expected.length, actual.length);
+        for (int index = 0; index < expected.length; index++) {
+            assertTrue(actual[index].hasOnlyAir(), "Restored section " + index + " is not air");
+            for (int y = 0; y < 4; y++) {
+                for (int z = 0; z < 4; z++) {
+                    for (int x = 0; x < 4; x++) {
+                        assertSame(expected[index].getNoiseBiome(x, y, z), actual[index].getNoiseBiome(x, y, z),
+                            "Biome of section " + index + " at quart " + x + "," + y + "," + z);
+                    }
+                }
+            }
+        }
+        assertSame(desert, actual[loaded.getSectionIndexFromSectionY(40)].getNoiseBiome(0, 0, 0));
+        assertSame(plains, actual[loaded.getSectionIndexFromSectionY(12)].getNoiseBiome(0, 0, 0));
+    }
+
+    private static ProtoChunk chunk(Registry<Biome> biomes) {
+        return new ProtoChunk(new ChunkPos(4, -9), UpgradeData.EMPTY, LevelHeightAccessor.create(MIN_Y, HEIGHT),
+            biomes, null);
+    }
+
+    private static void setBiome(ProtoChunk chunk, int sectionY, Holder<Biome> biome, Registry<Biome> biomes) {
+        int index = chunk.getSectionIndexFromSectionY(sectionY);
+        LevelChunkSection section = chunk.getSections()[index];
+        chunk.getSections()[index] = new LevelChunkSection(section.getStates(),
+            new PalettedContainer<>(biomes.asHolderIdMap(), biome, PalettedContainer.Strategy.SECTION_BIOMES));
+    }
+
+    private static CompoundTag section(int y, String block, String biome) {
+        CompoundTag section = new CompoundTag();
+        section.putByte("Y", (byte) y);
+        if (block != null) {
+            CompoundTag state = new CompoundTag();
+            state.putString("Name", block);
+            ListTag statePalette = new ListTag();
+            statePalette.add(state);
+            CompoundTag states = new CompoundTag();
+            states.put("palette", statePalette);
+            section.put("block_states", states);
+        }
+        if (biome != null) {
+            ListTag biomePalette = new ListTag();
+            biomePalette.add(StringTag.valueOf(biome));
+            CompoundTag biomes = new CompoundTag();
+            biomes.put("palette", biomePalette);
+            section.put("biomes", biomes);
+        } else {
+            section.putByteArray("SkyLight", new byte[2048]);
+        }
+        return section;
+    }
+
+    private static List<Integer> sectionYs(CompoundTag chunk) {
+        List<Integer> ys = new ArrayList<>();
+        ListTag sections = chunk.getList("sections", Tag.TAG_COMPOUND);
+        for (int i = 0; i < sections.size(); i++) {
+            ys.add((int) sections.getCompound(i).getByte("Y"));
+        }
+        return ys;
+    }
+}
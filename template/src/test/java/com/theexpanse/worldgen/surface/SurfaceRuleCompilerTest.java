@@ -0,0 +1,279 @@
+package com.theexpanse.worldgen.surface;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mojang.serialization.JsonOps;
+import com.mojang.serialization.Lifecycle;
+import com.theexpanse.worldgen.MinecraftBootstrap;
+import net.minecraft.core.Holder;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.MappedRegistry;
+import net.minecraft.core.RegistrationInfo;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.data.registries.VanillaRegistries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LevelHeightAccessor;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.BiomeManager;
+import net.minecraft.world.level.biome.Biomes;
+import net.minecraft.world.level.biome.FixedBiomeSource;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import net.minecraft.world.level.chunk.UpgradeData;
+import net.minecraft.world.level.levelgen.Aquifer;
+import net.minecraft.world.level.levelgen.DensityFunction;
+import net.minecraft.world.level.levelgen.DensityFunctions;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.levelgen.NoiseBasedChunkGenerator;
+import net.minecraft.world.level.levelgen.NoiseChunk;
+import net.minecraft.world.level.levelgen.NoiseGeneratorSettings;
+import net.minecraft.world.level.levelgen.NoiseRouter;
+import net.minecraft.world.level.levelgen.NoiseSettings;
+import net.minecraft.world.level.levelgen.RandomState;
+import net.minecraft.world.level.levelgen.SurfaceRules;
+import net.minecraft.world.level.levelgen.SurfaceSystem;
+import net.minecraft.world.level.levelgen.WorldGenerationContext;
+import net.minecraft.world.level.levelgen.blending.Blender;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MinecraftBootstrap.class)
+class SurfaceRuleCompilerTest {
+    private static final String OVERWORLD = "/data/minecraft/worldgen/noise_settings/overworld.json";
+    private static final int SAMPLES_PER_BIOME = 2000;
+    private static final int SURFACE_CHUNKS = 6;
+
+    @Test
+    void specialisedRulesPickTheSameBlockAsTheInterpretedRule() throws IOException {
+        JsonElement rule = shippedRule();
+        List<String> biomes = new ArrayList<>(SurfaceRuleCompiler.biomes(rule));
+        assertTrue(biomes.size() > 10, "Expected the overworld rule to name its biomes");
+        biomes.add("minecraft:the_void");
+        biomes.add(null);
+
+        Random random = new Random(0x5EED_5A4FL);
+        for (String biome : biomes) {
+            JsonElement specialized = SurfaceRuleCompiler.specialize(rule, biome);
+            if (specialized != null) {
+                assertTrue(SurfaceRuleCompiler.biomes(specialized).isEmpty(), "Biome check left in " + biome);
+            }
+            // Each sample is a column: every non-biome condition gets an arbitrary but consistent outcome.
+            for (int sample = 0; sample < SAMPLES_PER_BIOME; sample++) {
+                long column = random.nextLong();
+                String expected = interpret(rule, biome, column);
+                String actual = specialized == null ? null : interpret(specialized, biome, column);
+                assertEquals(expected, actual, "Surface block for " + biome + " in sample " + sample);
+            }
+        }
+    }
+
+    @Test
+    void shippedRuleCompilesToSharedVariants() throws IOException {
+        JsonElement rule = shippedRule();
+        CompiledSurfaceRuleSource compiled = CompiledSurfaceRuleSource.compile(rule).getOrThrow();
+        Set<String> biomes = SurfaceRuleCompiler.biomes(rule);
+        Set<String> distinct = new HashSet<>();
+        for (String biome : biomes) {
+            distinct.add(String.valueOf(SurfaceRuleCompiler.specialize(rule, biome)));
+        }
+        distinct.add(String.valueOf(SurfaceRuleCompiler.specialize(rule, null)));
+
+        assertEquals(distinct.size(), compiled.variantCount(), "Identical specialisations were not shared");
+        assertTrue(compiled.variantCount() < biomes.size(),
+            "Expected biomes with the same surface to share a variant, got " + compiled.variantCount()
+                + " variants for " + biomes.size() + " biomes");
+    }
+
+    @Test
+    void compiledRuleBuildsTheSameSurfaceAsTheShippedRule() throws IOException {
+        JsonElement rule = shippedRule();
+        SurfaceRules.RuleSource original = SurfaceRules.RuleSource.CODEC.parse(JsonOps.INSTANCE, rule).getOrThrow();
+        SurfaceRules.RuleSource compiled = CompiledSurfaceRuleSource.compile(rule).getOrThrow();
+        SurfaceHarness harness = new SurfaceHarness(SurfaceRuleCompiler.biomes(rule));
+
+        Set<BlockState> placed = new HashSet<>();
+        for (int chunk = 0; chunk < SURFACE_CHUNKS; chunk++) {
+            ChunkPos pos = new ChunkPos(chunk * 7 - 20, 13 - chunk * 5);
+            ProtoChunk expected = harness.build(pos, original);
+            ProtoChunk actual = harness.build(pos, compiled);
+            LevelChunkSection[] expectedSections = expected.getSections();
+            LevelChunkSection[] actualSections = actual.getSections();
+            for (int index = 0; index < expectedSections.length; index++) {
+                for (int y = 0; y < 16; y++) {
+                    for (int z = 0; z < 16; z++) {
+                        for (int x = 0; x < 16; x++) {
+                            BlockState state = expectedSections[index].getBlockState(x, y, z);
+                            int blockY = expected.getSectionYFromSectionIndex(index) * 16 + y;
+                            int blockX = x;
+                            int blockZ = z;
+                            assertSame(state, actualSections[index].getBlockState(x, y, z),
+                                () -> "Surface diverged in " + pos + " at " + blockX + "," + blockY + "," + blockZ);
+                            placed.add(state);
+                        }
+                    }
+                }
+            }
+        }
+        assertTrue(placed.size() > 6, "The sampled columns produced too few surface blocks: " + placed);
+    }
+
+    /** A direct reading of vanilla's rule semantics: the first rule of a sequence that yields a block wins. */
+    private static String interpret(JsonElement rule, String biome, long column) {
+        JsonObject object = rule.getAsJsonObject();
+        switch (SurfaceRuleCompiler.type(object)) {
+            case "minecraft:condition" -> {
+                return test(object.get("if_true"), biome, column)
+                    ? interpret(object.get("then_run"), biome, column)
+                    : null;
+            }
+            case "minecraft:sequence" -> {
+                for (JsonElement child : object.getAsJsonArray("sequence")) {
+                    String block = interpret(child, biome, column);
+                    if (block != null) {
+                        return block;
+                    }
+                }
+                return null;
+            }
+            case "minecraft:block", "minecraft:bandlands" -> {
+                return object.toString();
+            }
+            default -> throw new AssertionError("Unexpected rule " + object);
+        }
+    }
+
+    private static boolean test(JsonElement condition, String biome, long column) {
+        JsonObject object = condition.getAsJsonObject();
+        return switch (SurfaceRuleCompiler.type(object)) {
+            case "minecraft:biome" -> {
+                if (biome == null) {
+                    yield false;
+                }
+                for (JsonElement name : object.getAsJsonArray("biome_is")) {
+                    if (biome.equals(SurfaceRuleCompiler.namespaced(name.getAsString()))) {
+                        yield true;
+                    }
+                }
+                yield false;
+            }
+            case "minecraft:not" -> !test(object.get("invert"), biome, column);
+            default -> outcome(column, object.toString());
+        };
+    }
+
+    private static boolean outcome(long column, String condition) {
+        long bits = (column ^ condition.hashCode()) * 0x9E3779B97F4A7C15L;
+        return (bits ^ bits >>> 29) < 0;
+    }
+
+    private static JsonElement shippedRule() throws IOException {
+        try (InputStream stream = SurfaceRuleCompilerTest.class.getResourceAsStream(OVERWORLD)) {
+            assertNotNull(stream, "Missing " + OVERWORLD);
+            try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+                JsonObject surfaceRule = JsonParser.parseReader(reader).getAsJsonObject()
+                    .getAsJsonObject("surface_rule");
+                assertEquals("the_expanse:compiled", surfaceRule.get("type").getAsString());
+                return surfaceRule.get("rule");
+            }
+        }
+    }
+
+    /**
+     * Runs vanilla's {@link SurfaceSystem#buildSurface} over stone columns of varied height, some of them under
+     * water, with the biome changing from quart to quart across every biome the rule names and one it does not.
+     */
+    private static final class SurfaceHarness {
+        private static final int MIN_Y = -256;
+        private static final int HEIGHT = 2288;
+        private static final int SEA_LEVEL = 63;
+        private static final long SEED = 0x5EED_5A4FL;
+        private static final BlockState STONE = Blocks.STONE.defaultBlockState();
+        private static final BlockState WATER = Blocks.WATER.defaultBlockState();
+
+        private final LevelHeightAccessor height = LevelHeightAccessor.create(MIN_Y, HEIGHT);
+        private final MappedRegistry<Biome> biomes = new MappedRegistry<>(Registries.BIOME, Lifecycle.stable());
+        private final List<Holder<Biome>> holders = new ArrayList<>();
+        private final NoiseGeneratorSettings settings;
+        private final RandomState randomState;
+        private final WorldGenerationContext context;
+
+        SurfaceHarness(Set<String> named) {
+            HolderLookup.Provider lookup = VanillaRegistries.createLookup();
+            HolderLookup.RegistryLookup<Biome> vanillaBiomes = lookup.lookupOrThrow(Registries.BIOME);
+            List<ResourceKey<Biome>> keys = new ArrayList<>();
+            named.forEach(id -> keys.add(ResourceKey.create(Registries.BIOME, ResourceLocation.parse(id))));
+            keys.add(Biomes.THE_VOID);
+            for (ResourceKey<Biome> key : keys) {
+                holders.add(biomes.register(key, vanillaBiomes.getOrThrow(key).value(), RegistrationInfo.BUILT_IN));
+            }
+            biomes.freeze();
+
+            settings = new NoiseGeneratorSettings(NoiseSettings.create(MIN_Y, HEIGHT, 1, 2), STONE, WATER,
+                zeroRouter(), SurfaceRules.state(STONE), List.of(), SEA_LEVEL, false, false, false, false);
+            randomState = RandomState.create(settings, lookup.lookupOrThrow(Registries.NOISE), SEED);
+            NoiseBasedChunkGenerator generator =
+                new NoiseBasedChunkGenerator(new FixedBiomeSource(holders.get(0)), Holder.direct(settings));
+            context = new WorldGenerationContext(generator, height);
+        }
+
+        ProtoChunk build(ChunkPos pos, SurfaceRules.RuleSource rule) {
+            ProtoChunk chunk = new ProtoChunk(pos, UpgradeData.EMPTY, height, biomes, null);
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    int top = columnTop(pos.getMinBlockX() + x, pos.getMinBlockZ() + z);
+                    for (int y = MIN_Y; y <= Math.max(top, SEA_LEVEL); y++) {
+                        LevelChunkSection section = chunk.getSection(chunk.getSectionIndex(y));
+                        section.setBlockState(x, y & 15, z, y <= top ? STONE : WATER, false);
+                    }
+                }
+            }
+            Heightmap.primeHeightmaps(chunk, EnumSet.of(Heightmap.Types.WORLD_SURFACE_WG,
+                Heightmap.Types.OCEAN_FLOOR_WG));
+
+            BiomeManager biomeManager = new BiomeManager(this::biomeAt, BiomeManager.obfuscateSeed(SEED));
+            NoiseChunk noiseChunk = NoiseChunk.forChunk(chunk, randomState, DensityFunctions.BeardifierMarker.INSTANCE,
+                settings, (x, y, z) -> new Aquifer.FluidStatus(SEA_LEVEL, WATER), Blender.empty());
+            randomState.surfaceSystem().buildSurface(randomState, biomeManager, biomes, false, context, chunk,
+                noiseChunk, rule);
+            return chunk;
+        }
+
+        /** Terrain from 40 blocks below sea level to steep hills, varying block by block. */
+        private static int columnTop(int x, int z) {
+            int hills = (int) (48 * Math.sin(x * 0.21) * Math.cos(z * 0.17));
+            return SEA_LEVEL + hills + Math.floorMod(x * 5 + z * 11, 9) - 4;
+        }
+
+        private Holder<Biome> biomeAt(int quartX, int quartY, int quartZ) {
+            return holders.get(Math.floorMod(quartX * 31 + quartZ * 17 + quartY * 7, holders.size()));
+        }
+
+        private static NoiseRouter zeroRouter() {
+            DensityFunction zero = DensityFunctions.zero();
+            return new NoiseRouter(zero, zero, zero, zero, zero, zero, zero, zero, zero, zero, zero, zero, zero,
+                zero, zero);
+        }
+    }
+}
@@ -36,6 +36,14 @@ tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+minecraft {
+    accessTransformers {
+        file(rootProject.file("template/src/main/resources/META-INF/accesstransformer.cfg"))
+    }
+}
+
+apply(from = rootProject.file("scripts/jmh.gradle.kts"))
+
 tasks.processResources {
     val modVersion = property("MOD_VERSION")
     val mcVersion = property("MC_VERSION")